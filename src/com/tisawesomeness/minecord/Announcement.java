@@ -7,11 +7,13 @@ import org.json.JSONObject;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 public class Announcement {
 
-    private static ArrayList<Announcement> announcements = new ArrayList<>();
-    private static int totalWeight;
+    // Replaced all at once on reload
+    private static volatile List<Announcement> announcements = Collections.emptyList();
     private final String text;
     private final int weight;
 
@@ -26,15 +28,13 @@ public class Announcement {
      * @throws IOException If announce.json is not found
      */
     public static void init(String path) throws IOException {
-        announcements = new ArrayList<>();
-        totalWeight = 0;
+        List<Announcement> announcements = new ArrayList<>();
         JSONArray announceArr = RequestUtils.loadJSONArray(path + "/announce.json");
         for (int i = 0; i < announceArr.length(); i++) {
             JSONObject announceObj = announceArr.getJSONObject(i);
-            int weight = announceObj.getInt("weight");
-            announcements.add(new Announcement(announceObj.getString("text"), weight));
-            totalWeight += weight;
+            announcements.add(new Announcement(announceObj.getString("text"), announceObj.getInt("weight")));
         }
+        Announcement.announcements = Collections.unmodifiableList(announcements);
     }
 
     /**
@@ -42,6 +42,11 @@ public class Announcement {
      * @return The selected announcement string
      */
     public static String rollAnnouncement() {
+        List<Announcement> announcements = Announcement.announcements;
+        int totalWeight = 0;
+        for (Announcement announcement : announcements) {
+            totalWeight += announcement.weight;
+        }
         int rand = (int) (Math.random() * totalWeight);
         int i = -1;
         while (rand >= 0) {
@@ -7,12 +7,9 @@ import com.tisawesomeness.minecord.interaction.InteractionListener;
 import com.tisawesomeness.minecord.interaction.InteractionTracker;
 import com.tisawesomeness.minecord.listing.TopGGClient;
 import com.tisawesomeness.minecord.listing.VoteHandler;
-import com.tisawesomeness.minecord.mc.FeatureFlagRegistry;
+import com.tisawesomeness.minecord.mc.GameData;
 import com.tisawesomeness.minecord.mc.MCLibrary;
 import com.tisawesomeness.minecord.mc.StandardMCLibrary;
-import com.tisawesomeness.minecord.mc.VersionRegistry;
-import com.tisawesomeness.minecord.mc.item.ItemRegistry;
-import com.tisawesomeness.minecord.mc.recipe.RecipeRegistry;
 import com.tisawesomeness.minecord.network.APIClient;
 import com.tisawesomeness.minecord.network.OkAPIClient;
 import com.tisawesomeness.minecord.util.ArrayUtils;
@@ -21,6 +18,7 @@ import com.tisawesomeness.minecord.util.DateUtils;
 import com.tisawesomeness.minecord.util.DiscordUtils;
 import com.tisawesomeness.minecord.util.type.DelayedCountDownLatch;
 import com.tisawesomeness.minecord.util.type.Switch;
+import com.tisawesomeness.minecord.util.type.TaskGraph;
 import lombok.Getter;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.entities.Activity;
@@ -44,12 +42,18 @@ import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 public class Bot {
 
     private static final String mainClass = "com.tisawesomeness.minecord.Main";
+    private static final int BOOT_THREADS = 4;
     public static final String author = "Tis_awesomeness";
     public static final String authorTag = "@tis_awesomeness";
     public static final String invite = "https://minecord.github.io/invite";
@@ -88,9 +92,6 @@ public class Bot {
     private static void setReady() {
         readySwitch.enable();
     }
-    private static void setNotReady() {
-        readySwitch.disable();
-    }
     public static boolean waitForReady(long l, TimeUnit timeUnit) throws InterruptedException {
         return readySwitch.waitForEnable(l, timeUnit);
     }
@@ -142,29 +143,18 @@ public class Bot {
         commandListener = new CommandListener();
         interactionListener = new InteractionListener();
 
-        try {
-            Announcement.init(Config.getPath());
-            ColorUtils.init(Config.getPath());
-            VersionRegistry.init(Config.getPath());
-            FeatureFlagRegistry.init(Config.getPath());
-            ItemRegistry.init(Config.getPath());
-            RecipeRegistry.init(Config.getPath());
-        } catch (IOException ex) {
-            ex.printStackTrace();
-            return false;
-        }
-        InteractionTracker.startPurgeThread();
-        Registry.init();
+        //Save queued settings changes however the JVM exits
+        Runtime.getRuntime().addShutdownHook(new Thread(Database::close, "Database Shutdown"));
 
-        //Connect to database
-        Thread db = new Thread(() -> {
-            try {
-                Database.init();
-            } catch (SQLException ex) {
-                ex.printStackTrace();
-            }
+        //Load data and connect to database while logging in
+        ExecutorService bootExecutor = Executors.newFixedThreadPool(BOOT_THREADS, r -> {
+            Thread t = new Thread(r, "Boot");
+            t.setDaemon(true);
+            return t;
         });
-        db.start();
+        TaskGraph boot = startBoot(bootExecutor);
+        InteractionTracker.startPurgeThread();
+        Registry.init();
 
         //Start web server
         Thread ws = null;
@@ -190,6 +180,9 @@ public class Bot {
 
             //If this is a reload
             if (reload && Config.getDevMode()) {
+                if (!awaitBoot(boot, bootExecutor)) {
+                    return false;
+                }
 
                 //Get main class info
                 Message m = (Message) MethodName.GET_MESSAGE.method().invoke(null, "ignore");
@@ -200,6 +193,7 @@ public class Bot {
                 for (JDA jda : shardManager.getShards()) {
                     jda.addEventListener(statusListener, guildListener, commandListener, interactionListener);
                 }
+                preloadGuildSettings();
                 m.editMessage(":white_check_mark: **Bot reloaded!**").queue();
                 logger.log(":arrows_counterclockwise: **Bot reloaded by " + DiscordUtils.tagAndId(u) + "**");
                 System.out.println("Bot reloaded by " + DiscordUtils.tagAndId(u));
@@ -229,8 +223,14 @@ public class Bot {
                 if (Config.getShardCount() == -1) {
                     System.out.println("Shard count: " + shardCount);
                 }
+                long shardStart = System.currentTimeMillis();
                 waitForShards();
-                System.out.println("Shards ready");
+                System.out.printf("Shards ready in %d ms%n", System.currentTimeMillis() - shardStart);
+                if (!awaitBoot(boot, bootExecutor)) {
+                    shardManager.shutdown();
+                    return false;
+                }
+                preloadGuildSettings();
 
             }
         } catch (Exception ex) {
@@ -250,11 +250,8 @@ public class Bot {
                     .thenAccept(commands -> Bot.slashCommands = commands);
         }
 
-        //Wait for commands, database and web server
-        try {
-            commandFuture.join();
-            db.join();
-        } catch (InterruptedException ignored) {}
+        //Wait for commands and web server
+        commandFuture.join();
         setReady();
         System.out.println("Bot ready!");
         try {
@@ -276,6 +273,49 @@ public class Bot {
 
     }
 
+    /**
+     * Starts loading data files and connecting to the database in parallel.
+     * Game data is published once every registry has loaded.
+     * @param executor The executor to load on
+     * @return The boot tasks, which may still be running
+     */
+    private static TaskGraph startBoot(Executor executor) {
+        String path = Config.getPath();
+        TaskGraph boot = new TaskGraph(executor);
+        boot.add("Announcements", () -> Announcement.init(path));
+        boot.add("Colors", () -> ColorUtils.init(path));
+        boot.add("Game data", () -> GameData.init(path, executor));
+        boot.add("Database", () -> {
+            try {
+                Database.init();
+            } catch (SQLException ex) {
+                ex.printStackTrace();
+            }
+        });
+        return boot;
+    }
+    private static boolean awaitBoot(TaskGraph boot, ExecutorService executor) {
+        try {
+            boot.await();
+            return true;
+        } catch (ExecutionException ex) {
+            ex.getCause().printStackTrace();
+            return false;
+        } catch (InterruptedException ex) {
+            ex.printStackTrace();
+            return false;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // Only the guilds on this process's shards, other guilds load on first use
+    private static void preloadGuildSettings() {
+        Database.preloadGuilds(shardManager.getGuilds().stream()
+                .map(Guild::getIdLong)
+                .collect(Collectors.toList()));
+    }
+
     public static CompletableFuture<Void> deployCommands() {
         List<CommandData> slashCommands = Registry.getSlashCommands();
         CompletableFuture<Void> future = shardManager.getShards().get(0)
@@ -300,15 +340,20 @@ public class Bot {
         return future;
     }
 
+    /**
+     * Reloads the config, database, and game data while the bot keeps running.
+     * Every registry builds its new data before all of it replaces the old data in one step,
+     * so commands that are already running finish with the old data and new commands never wait.
+     * If a game data file fails to load, all game data is kept as it was.
+     */
     public static boolean reload(User user, String reason) {
         boolean error = false;
         String oldLogWebhook = Config.getLogWebhook();
-        setNotReady();
         try {
 
             try {
-                Database.close();
                 Database.init();
+                preloadGuildSettings();
             } catch (SQLException ex) {
                 ex.printStackTrace();
                 error = true;
@@ -327,10 +372,7 @@ public class Bot {
                 }
                 Announcement.init(Config.getPath());
                 ColorUtils.init(Config.getPath());
-                VersionRegistry.init(Config.getPath());
-                FeatureFlagRegistry.init(Config.getPath());
-                ItemRegistry.init(Config.getPath());
-                RecipeRegistry.init(Config.getPath());
+                GameData.init(Config.getPath(), ForkJoinPool.commonPool());
             } catch (IOException ex) {
                 ex.printStackTrace();
                 error = true;
@@ -340,7 +382,6 @@ public class Bot {
             logger = new DiscordLogger(apiClient.getHttpClientBuilder().build());
 
         } finally {
-            setReady();
             String reasonMsg = reason == null ? "" : ": " + reason;
             String msg = "Bot reloaded by " + DiscordUtils.tagAndId(user) + reasonMsg;
             System.out.println(msg);
@@ -356,6 +397,7 @@ public class Bot {
             jda.setAutoReconnect(false);
             jda.removeEventListener(statusListener, guildListener, commandListener, interactionListener);
         }
+        Database.close();
         try {
             //Reload this class using reflection
             String[] args = ArrayUtils.addAll(new String[]{"-r"}, Bot.args);
@@ -45,6 +45,7 @@ public class Config {
     private static boolean useElectroidAPI;
     private static boolean useGappleAPI;
     private static boolean recordCacheStats;
+    @Getter private static int itemSearchCacheSize;
     @Getter private static String itemImageHost;
     @Getter private static String recipeImageHost;
     @Getter private static String crafatarHost;
@@ -65,6 +66,12 @@ public class Config {
     @Getter private static String dbName;
     @Getter private static String user;
     @Getter private static String pass;
+    @Getter private static int poolSize;
+    @Getter private static int poolTimeout;
+    @Getter private static int poolIdleTimeout;
+    @Getter private static int poolLeakThreshold;
+    private static boolean lazySettings;
+    @Getter private static int settingsCacheSize;
 
     @Getter private static String path;
 
@@ -156,6 +163,7 @@ public class Config {
         useElectroidAPI = settings.optBoolean("useElectroidAPI", true);
         useGappleAPI = settings.optBoolean("useGappleAPI", true);
         recordCacheStats = settings.optBoolean("recordCacheStats", false);
+        itemSearchCacheSize = settings.optInt("itemSearchCacheSize", 4096);
         itemImageHost = settings.optString("itemImageHost", "https://minecord.github.io/item/");
         recipeImageHost = settings.optString("recipeImageHost", "https://minecord.github.io/recipe/");
         crafatarHost = settings.optString("crafatarHost", "https://crafatar.com/");
@@ -183,6 +191,12 @@ public class Config {
         dbName = database.getString("name");
         user = database.getString("user");
         pass = database.getString("pass");
+        poolSize = database.optInt("poolSize", 10);
+        poolTimeout = database.optInt("poolTimeout", 5000);
+        poolIdleTimeout = database.optInt("poolIdleTimeout", 600000);
+        poolLeakThreshold = database.optInt("poolLeakThreshold", 60000);
+        lazySettings = database.optBoolean("lazySettings", false);
+        settingsCacheSize = database.optInt("settingsCacheSize", 100000);
 
     }
 
@@ -191,6 +205,7 @@ public class Config {
     public static boolean isSelfHosted() { return isSelfHosted; }
     public static boolean getEvil() { return evil; }
     public static boolean getDevMode() { return devMode; }
+    public static boolean getLazySettings() { return lazySettings; }
     public static boolean getDebugMode() { return debugMode; }
     public static boolean getDeleteCommands() { return deleteCommands; }
     public static boolean getUseMenus() { return useMenus; }
@@ -1,5 +1,6 @@
 package com.tisawesomeness.minecord;
 
+import com.tisawesomeness.minecord.database.Database;
 import com.tisawesomeness.minecord.listing.TopGGClient;
 import com.tisawesomeness.minecord.util.DiscordUtils;
 import lombok.RequiredArgsConstructor;
@@ -12,6 +13,7 @@ import net.dv8tion.jda.api.events.guild.GuildLeaveEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import net.dv8tion.jda.api.utils.messages.MessageCreateData;
 
+import java.util.Collections;
 import java.util.concurrent.CompletableFuture;
 
 @RequiredArgsConstructor
@@ -30,6 +32,7 @@ public class GuildListener extends ListenerAdapter {
         //Create embed
         if (e instanceof GuildJoinEvent) {
 
+            Database.preloadGuilds(Collections.singleton(guild.getIdLong()));
             String avatarUrl = owner == null ? null : owner.getUser().getAvatarUrl();
             eb.setAuthor("Joined guild!", null, avatarUrl);
             eb.addField("Name", guild.getName(), true);
@@ -10,11 +10,13 @@ import com.tisawesomeness.minecord.util.type.Either;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.SelfUser;
 import net.dv8tion.jda.api.entities.User;
 import net.dv8tion.jda.api.entities.channel.ChannelType;
 import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
 import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
 import net.dv8tion.jda.api.events.Event;
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
@@ -26,6 +28,25 @@ import java.util.concurrent.TimeUnit;
 
 public class CommandListener extends ListenerAdapter {
 
+    @Override
+    public void onCommandAutoCompleteInteraction(CommandAutoCompleteInteractionEvent e) {
+        Optional<SlashCommand> mappingOpt = Registry.getSlashCommand(e.getName());
+        if (!mappingOpt.isPresent()) {
+            return;
+        }
+        // Autocomplete must respond quickly, so don't wait for the bot to start
+        List<net.dv8tion.jda.api.interactions.commands.Command.Choice> choices = Collections.emptyList();
+        try {
+            if (Bot.waitForReady(0, TimeUnit.SECONDS)) {
+                choices = mappingOpt.get().autoComplete(e);
+            }
+        } catch (InterruptedException ex) {
+            ex.printStackTrace();
+            return;
+        }
+        e.replyChoices(choices).queue();
+    }
+
     @Override
     public void onSlashCommandInteraction(SlashCommandInteractionEvent e) {
         Optional<SlashCommand> mappingOpt = Registry.getSlashCommand(e.getName());
@@ -105,36 +126,40 @@ public class CommandListener extends ListenerAdapter {
             return;
         }
 
-        // Get all values that change based on channel type
+        // Almost every message is not a command, so check for the prefix before anything else
+        boolean fromGuild = e.isFromType(ChannelType.TEXT) || e.isFromType(ChannelType.VOICE) || e.isFromType(ChannelType.NEWS) || e.isFromType(ChannelType.FORUM) || e.isFromThread();
+        if (!fromGuild && !e.isFromType(ChannelType.PRIVATE)) {
+            return;
+        }
         String prefix = MessageUtils.getPrefix(e);
+        SelfUser su = e.getJDA().getSelfUser();
+        if (!MessageUtils.isCommandCandidate(m.getContentRaw(), prefix, su.getIdLong())) {
+            return;
+        }
+
+        //Check if message can be acted upon
+        User a = m.getAuthor();
+        if (a.isBot() || Database.isUserBanned(a.getIdLong())) return;
+
+        // Get all values that change based on channel type
         boolean deleteCommands = false;
         boolean canEmbed = true;
-        if (e.isFromType(ChannelType.TEXT) || e.isFromType(ChannelType.VOICE) || e.isFromType(ChannelType.NEWS) || e.isFromType(ChannelType.FORUM) || e.isFromThread()) {
+        if (fromGuild) {
             Member sm = e.getGuild().getSelfMember();
             GuildChannel tc = e.getGuildChannel();
-            if (!sm.hasPermission(tc, Permission.MESSAGE_SEND) || Database.isBanned(e.getGuild().getIdLong())) {
+            if (Database.isGuildBanned(e.getGuild().getIdLong()) || !sm.hasPermission(tc, Permission.MESSAGE_SEND)) {
                 return;
             }
             deleteCommands = sm.hasPermission(tc, Permission.MESSAGE_MANAGE) &&
                     Database.getDeleteCommands(e.getGuild().getIdLong());
             canEmbed = sm.hasPermission(tc, Permission.MESSAGE_EMBED_LINKS);
-        } else if (e.isFromType(ChannelType.PRIVATE)) {
-            prefix = Config.getPrefix();
-        } else {
-            return;
         }
 
-        //Check if message can be acted upon
-        User a = m.getAuthor();
-        if (a.isBot() || Database.isBanned(a.getIdLong())) return;
-
-        //If the message is a valid command
-        String[] content = MessageUtils.getContent(m, prefix, e.getJDA().getSelfUser());
+        //Extract name and argument list
+        String[] content = MessageUtils.getContent(m, prefix, su);
         if (content == null || content.length == 0) {
             return;
         }
-
-        //Extract name and argument list
         String name = content[0];
         if (name.isEmpty()) {
             return; //If there is a space after prefix, don't process any more
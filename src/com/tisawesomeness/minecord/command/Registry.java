@@ -68,6 +68,8 @@ public class Registry {
                        new ItemCommand(),
                        new RecipeCommand(),
                        new IngredientCommand(),
+                       new CraftTreeCommand(),
+                       new CraftableCommand(),
                        new StackCommand(),
                        new CoordsCommand(),
                        new CodesCommand(),
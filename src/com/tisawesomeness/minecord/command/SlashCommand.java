@@ -1,6 +1,7 @@
 package com.tisawesomeness.minecord.command;
 
 import com.tisawesomeness.minecord.Bot;
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.interactions.IntegrationType;
 import net.dv8tion.jda.api.interactions.InteractionContextType;
@@ -12,6 +13,8 @@ import net.dv8tion.jda.api.utils.MarkdownUtil;
 import net.dv8tion.jda.api.utils.messages.MessageCreateData;
 
 import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
@@ -30,6 +33,16 @@ public abstract class SlashCommand implements Command<SlashCommandInteractionEve
         return builder;
     }
 
+    /**
+     * Suggests values for an option that was added with autocomplete enabled.
+     * Called on every keystroke, so this should be fast and must not block.
+     * @param e The autocomplete event, use {@link CommandAutoCompleteInteractionEvent#getFocusedOption()} to get the option
+     * @return A list of up to 25 choices, which may be empty
+     */
+    public List<net.dv8tion.jda.api.interactions.commands.Command.Choice> autoComplete(CommandAutoCompleteInteractionEvent e) {
+        return Collections.emptyList();
+    }
+
     /**
      * @return list of aliases that existed before this command moved to slash commands
      */
@@ -65,6 +65,7 @@ public class DebugCommand extends LegacyCommand {
                 new JDADebugOption(Bot.shardManager),
                 new ThreadDebugOption(),
                 new ItemDebugOption(),
+                new DatabaseDebugOption(),
                 new ClientDebugOption(Bot.apiClient),
                 new CooldownCacheDebugOption(),
                 new UuidCacheDebugOption(playerProvider),
@@ -2,6 +2,7 @@ package com.tisawesomeness.minecord.command.admin;
 
 import com.tisawesomeness.minecord.Bot;
 import com.tisawesomeness.minecord.command.LegacyCommand;
+import com.tisawesomeness.minecord.database.Database;
 import com.tisawesomeness.minecord.util.DiscordUtils;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import net.dv8tion.jda.api.utils.MarkdownUtil;
@@ -28,6 +29,7 @@ public class ShutdownCommand extends LegacyCommand {
         Bot.logger.log(":x: " + MarkdownUtil.bold(msg));
         e.getChannel().sendMessage(":wave: Goodbye!").complete();
         e.getJDA().shutdown();
+        Database.close();
         System.exit(0);
         return new Result(Outcome.SUCCESS);
     }
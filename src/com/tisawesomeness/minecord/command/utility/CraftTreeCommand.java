@@ -0,0 +1,128 @@
+package com.tisawesomeness.minecord.command.utility;
+
+import com.tisawesomeness.minecord.Bot;
+import com.tisawesomeness.minecord.command.OptionTypes;
+import com.tisawesomeness.minecord.command.SlashCommand;
+import com.tisawesomeness.minecord.mc.VersionRegistry;
+import com.tisawesomeness.minecord.mc.item.ItemRegistry;
+import com.tisawesomeness.minecord.mc.recipe.CraftPlan;
+import com.tisawesomeness.minecord.mc.recipe.RecipeRegistry;
+import com.tisawesomeness.minecord.util.MessageUtils;
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+import net.dv8tion.jda.api.interactions.commands.build.OptionData;
+import net.dv8tion.jda.api.interactions.commands.build.SlashCommandData;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+public class CraftTreeCommand extends SlashCommand {
+
+    private static final int MAX_AMOUNT = 1_000_000;
+    private static final int MAX_LINES = 20;
+
+    public CommandInfo getInfo() {
+        return new CommandInfo(
+                "craft-tree",
+                "Calculates the raw materials needed to craft an item.",
+                "<item name|id> [amount]",
+                1000,
+                false,
+                false
+        );
+    }
+
+    @Override
+    public SlashCommandData addCommandSyntax(SlashCommandData builder) {
+        return builder.addOption(OptionType.STRING, "item", "A Minecraft item with a recipe", true, true)
+                .addOptions(new OptionData(OptionType.INTEGER, "amount", "The number of items to craft", false)
+                        .setRequiredRange(1, MAX_AMOUNT));
+    }
+
+    @Override
+    public List<net.dv8tion.jda.api.interactions.commands.Command.Choice> autoComplete(CommandAutoCompleteInteractionEvent e) {
+        return ItemRegistry.autoComplete(e.getFocusedOption().getValue());
+    }
+
+    @Override
+    public String getHelp() {
+        return "Expands the recipe for an item down to raw materials.\n" +
+                "Lists the raw materials, every intermediate craft, and leftover items.\n" +
+                "Uses crafting, stonecutting, and smithing recipes from Java Edition " + VersionRegistry.getLatestVersion() + ".\n" +
+                "Smelted items such as ingots and glass count as raw materials, " +
+                "and tags use the first item in the tag, such as Oak Planks for any planks.\n" +
+                "\n" +
+                ItemRegistry.help + "\n";
+    }
+
+    public Result run(SlashCommandInteractionEvent e) {
+        String search = getOption(e, "item", OptionTypes.STRING);
+        if (search == null) {
+            return Result.SLASH_COMMAND_FAIL;
+        }
+        String item = ItemRegistry.search(search);
+        if (item == null) {
+            return new Result(Outcome.WARNING, ItemRegistry.getNotFoundMessage(search));
+        }
+        long amount = getOption(e, "amount", 1L, OptionTypes.LONG);
+        if (amount < 1 || amount > MAX_AMOUNT) {
+            return new Result(Outcome.WARNING, String.format(":warning: Amount must be 1-%,d.", MAX_AMOUNT));
+        }
+
+        CraftPlan plan = RecipeRegistry.planCraft(item, amount);
+        String displayName = ItemRegistry.getDistinctDisplayName(item);
+        if (!plan.isCraftable()) {
+            return new Result(Outcome.SUCCESS, ":warning: " + displayName + " is a raw material and can't be crafted.");
+        }
+
+        EmbedBuilder eb = new EmbedBuilder()
+                .setTitle(String.format("Crafting %,d %s", amount, displayName))
+                .setColor(Bot.color);
+        List<Map.Entry<String, Long>> rawMaterials = new ArrayList<>(plan.getRawMaterials().entrySet());
+        rawMaterials.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        List<String> rawLines = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : rawMaterials) {
+            rawLines.add(String.format("- **%,d** %s", entry.getValue(), getDisplayName(entry.getKey())));
+        }
+        List<String> stepLines = new ArrayList<>();
+        for (CraftPlan.Step step : plan.getSteps()) {
+            stepLines.add(String.format("%d. Craft %s **%,d** times in a %s to make **%,d**",
+                    stepLines.size() + 1, getDisplayName(step.getItem()), step.getCrafts(),
+                    getDisplayName(step.getRecipe().getTableItem()), step.getProduced()));
+        }
+        List<String> leftoverLines = new ArrayList<>();
+        plan.getLeftovers().forEach((leftover, count) ->
+                leftoverLines.add(String.format("- **%,d** %s", count, getDisplayName(leftover))));
+
+        StringJoiner description = new StringJoiner("\n");
+        description.add("**Raw Materials:**");
+        addLines(description, rawLines);
+        description.add("\n**Steps:**");
+        addLines(description, stepLines);
+        if (!leftoverLines.isEmpty()) {
+            description.add("\n**Leftovers:**");
+            addLines(description, leftoverLines);
+        }
+        eb.setDescription(description.toString());
+        eb = MessageUtils.addFooter(eb);
+        return new Result(Outcome.SUCCESS, eb.build());
+    }
+
+    private static void addLines(StringJoiner sj, List<String> lines) {
+        for (int i = 0; i < Math.min(lines.size(), MAX_LINES); i++) {
+            sj.add(lines.get(i));
+        }
+        if (lines.size() > MAX_LINES) {
+            sj.add(String.format("*...and %d more*", lines.size() - MAX_LINES));
+        }
+    }
+    private static String getDisplayName(String namespacedID) {
+        String item = ItemRegistry.searchNoStats(namespacedID);
+        return item == null ? namespacedID : ItemRegistry.getDistinctDisplayName(item);
+    }
+
+}
@@ -0,0 +1,159 @@
+package com.tisawesomeness.minecord.command.utility;
+
+import com.tisawesomeness.minecord.Bot;
+import com.tisawesomeness.minecord.command.OptionTypes;
+import com.tisawesomeness.minecord.command.SlashCommand;
+import com.tisawesomeness.minecord.mc.VersionRegistry;
+import com.tisawesomeness.minecord.mc.item.ItemRegistry;
+import com.tisawesomeness.minecord.mc.recipe.Recipe;
+import com.tisawesomeness.minecord.mc.recipe.RecipeRegistry;
+import com.tisawesomeness.minecord.util.MessageUtils;
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+import net.dv8tion.jda.api.interactions.commands.build.SlashCommandData;
+import net.dv8tion.jda.api.utils.MarkdownSanitizer;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class CraftableCommand extends SlashCommand {
+
+    private static final int MAX_LINES = 30;
+    private static final int MAX_ENTRIES = 500;
+    // "64 oak planks", "64x oak planks", "oak planks x64", or "oak planks"
+    private static final Pattern LEADING_COUNT = Pattern.compile("^(\\d+)\\s*x?\\s+(.+)$", Pattern.CASE_INSENSITIVE);
+    private static final Pattern TRAILING_COUNT = Pattern.compile("^(.+?)\\s+[x*]\\s*(\\d+)$", Pattern.CASE_INSENSITIVE);
+
+    public CommandInfo getInfo() {
+        return new CommandInfo(
+                "craftable",
+                "Finds what can be crafted with a list of items.",
+                "<items> [recursive]",
+                1000,
+                false,
+                false
+        );
+    }
+
+    @Override
+    public SlashCommandData addCommandSyntax(SlashCommandData builder) {
+        return builder.addOption(OptionType.STRING, "items", "Comma-separated items with counts, such as \"64 oak planks, 3 iron ingot\"", true)
+                .addOption(OptionType.BOOLEAN, "recursive", "Include items that need other items crafted first", false);
+    }
+
+    @Override
+    public String getHelp() {
+        return "Finds every recipe that can be made with a list of items.\n" +
+                "Separate items with commas or new lines, and add a count like `64 oak planks` or `oak planks x64`.\n" +
+                "Items without a count count as 1.\n" +
+                "With `recursive`, also lists recipes that need items crafted from your items first, " +
+                "but only checks that each ingredient can be made, not that there is enough for every step.\n" +
+                "Only recipes in Java Edition " + VersionRegistry.getLatestVersion() + " are searched.\n" +
+                "\n" +
+                ItemRegistry.help + "\n";
+    }
+
+    public Result run(SlashCommandInteractionEvent e) {
+        String itemsStr = getOption(e, "items", OptionTypes.STRING);
+        if (itemsStr == null) {
+            return Result.SLASH_COMMAND_FAIL;
+        }
+        boolean recursive = getOption(e, "recursive", false, OptionTypes.BOOLEAN);
+
+        String[] entries = itemsStr.split("[,;\\n]");
+        if (entries.length > MAX_ENTRIES) {
+            return new Result(Outcome.WARNING, String.format(":warning: You can list at most %d items.", MAX_ENTRIES));
+        }
+        Map<String, Long> inventory = new LinkedHashMap<>();
+        List<String> notFound = new ArrayList<>();
+        for (String entry : entries) {
+            entry = entry.trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+            long count = 1;
+            String name = entry;
+            Matcher leading = LEADING_COUNT.matcher(entry);
+            Matcher trailing = TRAILING_COUNT.matcher(entry);
+            try {
+                if (leading.matches()) {
+                    count = Long.parseLong(leading.group(1));
+                    name = leading.group(2);
+                } else if (trailing.matches()) {
+                    name = trailing.group(1);
+                    count = Long.parseLong(trailing.group(2));
+                }
+            } catch (NumberFormatException ignored) {
+                return new Result(Outcome.WARNING, ":warning: **" + MarkdownSanitizer.escape(entry) + "** has too many items.");
+            }
+            String item = ItemRegistry.search(name);
+            if (item == null) {
+                notFound.add(name);
+            } else if (count > 0) {
+                inventory.merge(item, count, Long::sum);
+            }
+        }
+        if (!notFound.isEmpty()) {
+            StringJoiner names = new StringJoiner(", ");
+            notFound.stream()
+                    .limit(10)
+                    .forEach(name -> names.add("**" + MarkdownSanitizer.escape(name) + "**"));
+            if (notFound.size() > 10) {
+                names.add("and " + (notFound.size() - 10) + " more");
+            }
+            return new Result(Outcome.WARNING, ":warning: These items do not exist: " + names);
+        }
+        if (inventory.isEmpty()) {
+            return new Result(Outcome.WARNING, ":warning: You must list at least one item.");
+        }
+
+        List<Recipe> recipes = RecipeRegistry.searchCraftable(inventory, recursive);
+        if (recipes.isEmpty()) {
+            return new Result(Outcome.SUCCESS, ":warning: Nothing can be crafted with those items.");
+        }
+        Set<Recipe> direct = recursive
+                ? new HashSet<>(RecipeRegistry.searchCraftable(inventory, false))
+                : new HashSet<>(recipes);
+
+        // One line per result item, preferring a recipe that can be made without crafting other items first
+        Map<String, Recipe> byResult = new LinkedHashMap<>();
+        for (Recipe recipe : recipes) {
+            String result = recipe.getResult().getItem();
+            Recipe existing = byResult.get(result);
+            if (existing == null || !direct.contains(existing) && direct.contains(recipe)) {
+                byResult.put(result, recipe);
+            }
+        }
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<String, Recipe> entry : byResult.entrySet()) {
+            Recipe recipe = entry.getValue();
+            String line = String.format("- %s (%s)", getDisplayName(entry.getKey()), getDisplayName(recipe.getTableItem()));
+            lines.add(direct.contains(recipe) ? line : line + " \\*");
+        }
+
+        StringJoiner description = new StringJoiner("\n");
+        for (int i = 0; i < Math.min(lines.size(), MAX_LINES); i++) {
+            description.add(lines.get(i));
+        }
+        if (lines.size() > MAX_LINES) {
+            description.add(String.format("*...and %d more*", lines.size() - MAX_LINES));
+        }
+        if (recursive && direct.size() < recipes.size()) {
+            description.add("\n\\* Craft other items first");
+        }
+        EmbedBuilder eb = new EmbedBuilder()
+                .setTitle(String.format("%d Craftable Items", byResult.size()))
+                .setColor(Bot.color)
+                .setDescription(description.toString());
+        eb = MessageUtils.addFooter(eb);
+        return new Result(Outcome.SUCCESS, eb.build());
+    }
+
+    private static String getDisplayName(String namespacedID) {
+        String item = ItemRegistry.searchNoStats(namespacedID);
+        return item == null ? namespacedID : ItemRegistry.getDistinctDisplayName(item);
+    }
+
+}
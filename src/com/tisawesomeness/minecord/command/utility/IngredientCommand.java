@@ -4,10 +4,12 @@ import com.tisawesomeness.minecord.command.OptionTypes;
 import com.tisawesomeness.minecord.command.SlashCommand;
 import com.tisawesomeness.minecord.interaction.InteractionTracker;
 import com.tisawesomeness.minecord.interaction.RecipeMenu;
+import com.tisawesomeness.minecord.mc.Version;
 import com.tisawesomeness.minecord.mc.VersionRegistry;
 import com.tisawesomeness.minecord.mc.item.ItemRegistry;
 import com.tisawesomeness.minecord.mc.recipe.Recipe;
 import com.tisawesomeness.minecord.mc.recipe.RecipeRegistry;
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.build.OptionData;
@@ -30,9 +32,15 @@ public class IngredientCommand extends SlashCommand {
 
     @Override
     public SlashCommandData addCommandSyntax(SlashCommandData builder) {
-        return builder.addOption(OptionType.STRING, "item", "A Minecraft item", true)
+        return builder.addOption(OptionType.STRING, "item", "A Minecraft item", true, true)
                 .addOptions(new OptionData(OptionType.INTEGER, "page", "The page of recipes to show", false)
-                        .setRequiredRange(1, Integer.MAX_VALUE));
+                        .setRequiredRange(1, Integer.MAX_VALUE))
+                .addOption(OptionType.STRING, "version", "Only show recipes in a Java Edition version, such as 1.16.5", false);
+    }
+
+    @Override
+    public List<net.dv8tion.jda.api.interactions.commands.Command.Choice> autoComplete(CommandAutoCompleteInteractionEvent e) {
+        return ItemRegistry.autoComplete(e.getFocusedOption().getValue());
     }
 
     @Override
@@ -45,6 +53,7 @@ public class IngredientCommand extends SlashCommand {
         return "Searches for the recipes containing an ingredient.\n" +
                 "Items and recipes are from Java Edition 1.7 to " + VersionRegistry.getLatestVersion() + ".\n" +
                 "All recipe types are searchable, including brewing.\n" +
+                "Add a `version` to only show recipes in that version.\n" +
                 "\n" +
                 ItemRegistry.help + "\n";
     }
@@ -58,8 +67,7 @@ public class IngredientCommand extends SlashCommand {
         }
         String item = ItemRegistry.search(search);
         if (item == null) {
-            return new Result(Outcome.WARNING,
-                    ":warning: That item does not exist! " + "\n" + "Did you spell it correctly?");
+            return new Result(Outcome.WARNING, ItemRegistry.getNotFoundMessage(search));
         }
 
         int page = getOption(e, "page", 1, OptionTypes.INTEGER);
@@ -68,9 +76,22 @@ public class IngredientCommand extends SlashCommand {
         }
         page -= 1;
 
-        List<Recipe> recipes = RecipeRegistry.searchIngredient(item);
+        String versionStr = getOption(e, "version", OptionTypes.STRING);
+        Version version = null;
+        if (versionStr != null) {
+            version = Version.parse(versionStr.trim());
+            if (version == null || !VersionRegistry.isKnown(version)) {
+                String latest = VersionRegistry.getLatestVersion().map(Version::toString).orElse("???");
+                return new Result(Outcome.WARNING, ":warning: Choose a Java Edition version from 1.7 to " + latest + ".");
+            }
+        }
+
+        List<Recipe> recipes = RecipeRegistry.searchIngredient(item, version);
         if (recipes.isEmpty()) {
             String displayName = ItemRegistry.getDistinctDisplayName(item);
+            if (version != null) {
+                return new Result(Outcome.WARNING, ":warning: " + displayName + " is not the ingredient of any recipe in " + version + "!");
+            }
             return new Result(Outcome.WARNING, ":warning: " + displayName + " is not the ingredient of any recipe!");
         }
         if (page >= recipes.size()) {
@@ -80,7 +101,7 @@ public class IngredientCommand extends SlashCommand {
             return new Result(Outcome.WARNING, ":warning: Choose a page 1-" + recipes.size() + ".");
         }
 
-        RecipeMenu menu = new RecipeMenu(recipes, page);
+        RecipeMenu menu = new RecipeMenu(recipes, page, version);
         if (InteractionTracker.shouldUseMenus(e)) {
             e.deferReply().queue();
             InteractionTracker.post(e.getHook(), menu);
@@ -6,10 +6,13 @@ import com.tisawesomeness.minecord.mc.VersionRegistry;
 import com.tisawesomeness.minecord.mc.item.ItemRegistry;
 import com.tisawesomeness.minecord.util.MessageUtils;
 import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.build.SlashCommandData;
 
+import java.util.List;
+
 public class ItemCommand extends SlashCommand {
 
     public CommandInfo getInfo() {
@@ -25,7 +28,12 @@ public class ItemCommand extends SlashCommand {
 
     @Override
     public SlashCommandData addCommandSyntax(SlashCommandData builder) {
-        return builder.addOption(OptionType.STRING, "item", "The Minecraft item to look up", true);
+        return builder.addOption(OptionType.STRING, "item", "The Minecraft item to look up", true, true);
+    }
+
+    @Override
+    public List<net.dv8tion.jda.api.interactions.commands.Command.Choice> autoComplete(CommandAutoCompleteInteractionEvent e) {
+        return ItemRegistry.autoComplete(e.getFocusedOption().getValue());
     }
 
     @Override
@@ -51,9 +59,7 @@ public class ItemCommand extends SlashCommand {
 
         // If nothing is found
         if (item == null) {
-            return new Result(Outcome.WARNING,
-                    ":warning: That item does not exist! " +
-                            "\n" + "Did you spell it correctly?");
+            return new Result(Outcome.WARNING, ItemRegistry.getNotFoundMessage(search));
         }
 
         // Build message
@@ -0,0 +1,506 @@
+package com.tisawesomeness.minecord.database;
+
+import javax.annotation.Nullable;
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A small pool of database connections.
+ * <br>At most {@code maxSize} connections are borrowed at once, and threads wait for a connection to be returned
+ * when all of them are in use. Returned connections are reused most recently returned first,
+ * and a connection that has been idle for more than a second is checked with {@link Connection#isValid(int)}
+ * before it is reused.
+ * <br>A background thread closes connections that have been idle longer than the idle timeout,
+ * and prints a warning with the borrower's stack trace when a connection is held longer than the leak threshold.
+ * <br>Closing a borrowed connection returns it to the pool, so borrow connections with try-with-resources.
+ * <br>Each connection keeps its most recently used statements from {@link Connection#prepareStatement(String)}
+ * open. Closing one of those statements clears its parameters and batch and keeps it for the next borrower
+ * that prepares the same SQL. The other {@code prepareStatement} overloads are never cached, so SQL that is only
+ * used once can be prepared without pushing other statements out of the cache.
+ */
+public final class ConnectionPool implements AutoCloseable {
+
+    private static final long VALIDATION_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final long HOUSEKEEPING_PERIOD_SECONDS = 10;
+    private static final int STATEMENT_CACHE_SIZE = 32;
+
+    private final DataSource source;
+    private final int maxSize;
+    private final long timeoutMillis;
+    private final long idleTimeoutNanos;
+    private final long leakThresholdNanos;
+
+    private final Semaphore permits;
+    // Most recently returned first, guarded by itself
+    private final Deque<IdleConnection> idle = new ArrayDeque<>();
+    private final Set<Lease> leases = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    private final AtomicInteger openCount = new AtomicInteger();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+    private final AtomicLong invalidCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final AtomicLong statementHits = new AtomicLong();
+    private final AtomicLong statementMisses = new AtomicLong();
+
+    /**
+     * Creates an empty pool. Connections are opened when they are first needed.
+     * @param source The source to open connections from
+     * @param maxSize The maximum number of connections borrowed at once
+     * @param timeoutMillis How long to wait for a connection when all are in use
+     * @param idleTimeoutMillis How long a connection can be unused before it is closed
+     * @param leakThresholdMillis How long a connection can be borrowed before a warning is printed, or 0 to disable
+     * @throws IllegalArgumentException If the max size is not positive
+     */
+    public ConnectionPool(DataSource source, int maxSize, long timeoutMillis, long idleTimeoutMillis,
+                          long leakThresholdMillis) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Max size must be positive but was " + maxSize);
+        }
+        this.source = source;
+        this.maxSize = maxSize;
+        this.timeoutMillis = timeoutMillis;
+        idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        leakThresholdNanos = TimeUnit.MILLISECONDS.toNanos(leakThresholdMillis);
+        permits = new Semaphore(maxSize, true);
+        housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Connection Pool Housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        housekeeper.scheduleAtFixedRate(this::housekeep,
+                HOUSEKEEPING_PERIOD_SECONDS, HOUSEKEEPING_PERIOD_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Borrows a connection, waiting if every connection is in use.
+     * @return A connection that returns to the pool when closed
+     * @throws SQLTimeoutException If no connection was returned before the timeout
+     * @throws SQLException If the pool is closed, the thread was interrupted, or a new connection could not be opened
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                timeoutCount.incrementAndGet();
+                throw new SQLTimeoutException("Timed out after " + timeoutMillis + " ms waiting for a database connection");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", ex);
+        }
+        try {
+            PooledConnection connection = takeIdle();
+            if (connection == null) {
+                connection = new PooledConnection(source.getConnection());
+                openCount.incrementAndGet();
+                createdCount.incrementAndGet();
+            }
+            borrowCount.incrementAndGet();
+            waitNanos.addAndGet(System.nanoTime() - start);
+            Lease lease = new Lease(connection);
+            leases.add(lease);
+            return lease.proxy;
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+    private PooledConnection takeIdle() {
+        while (true) {
+            IdleConnection entry;
+            synchronized (idle) {
+                entry = idle.pollFirst();
+            }
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.since < VALIDATION_INTERVAL || isValid(entry.connection.connection)) {
+                return entry.connection;
+            }
+            invalidCount.incrementAndGet();
+            closeConnection(entry.connection);
+        }
+    }
+    private static boolean isValid(Connection connection) {
+        try {
+            return connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException ignored) {
+            return false;
+        }
+    }
+
+    private void release(Lease lease) {
+        if (!lease.returned.compareAndSet(false, true)) {
+            return;
+        }
+        leases.remove(lease);
+        PooledConnection connection = lease.connection;
+        connection.releaseStatements();
+        boolean reusable;
+        try {
+            reusable = !connection.connection.isClosed();
+            if (reusable && !connection.connection.getAutoCommit()) {
+                connection.connection.rollback();
+                connection.connection.setAutoCommit(true);
+            }
+        } catch (SQLException ignored) {
+            reusable = false;
+        }
+        synchronized (idle) {
+            if (reusable && !closed) {
+                idle.addFirst(new IdleConnection(connection, System.nanoTime()));
+                connection = null;
+            }
+        }
+        if (connection != null) {
+            closeConnection(connection);
+        }
+        permits.release();
+    }
+
+    private void housekeep() {
+        long now = System.nanoTime();
+        List<PooledConnection> expired = new ArrayList<>();
+        synchronized (idle) {
+            // Least recently returned are at the end
+            Iterator<IdleConnection> it = idle.descendingIterator();
+            while (it.hasNext()) {
+                IdleConnection entry = it.next();
+                if (now - entry.since < idleTimeoutNanos) {
+                    break;
+                }
+                it.remove();
+                expired.add(entry.connection);
+            }
+        }
+        for (PooledConnection connection : expired) {
+            evictedCount.incrementAndGet();
+            closeConnection(connection);
+        }
+        if (leakThresholdNanos <= 0) {
+            return;
+        }
+        for (Lease lease : leases) {
+            if (!lease.reported && now - lease.since > leakThresholdNanos) {
+                lease.reported = true;
+                leakCount.incrementAndGet();
+                System.err.printf("Database connection borrowed by %s has not been returned for %d ms%n",
+                        lease.threadName, TimeUnit.NANOSECONDS.toMillis(now - lease.since));
+                lease.origin.printStackTrace();
+            }
+        }
+    }
+
+    private void closeConnection(PooledConnection connection) {
+        openCount.decrementAndGet();
+        try {
+            // Also closes every cached statement
+            connection.connection.close();
+        } catch (SQLException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    /**
+     * Closes every idle connection and stops lending connections.
+     * Borrowed connections are closed when they are returned.
+     */
+    @Override
+    public void close() {
+        List<IdleConnection> toClose;
+        synchronized (idle) {
+            closed = true;
+            toClose = new ArrayList<>(idle);
+            idle.clear();
+        }
+        housekeeper.shutdown();
+        for (IdleConnection entry : toClose) {
+            closeConnection(entry.connection);
+        }
+    }
+
+    /**
+     * @return The maximum number of connections borrowed at once
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+    /**
+     * @return The number of open connections, borrowed or idle
+     */
+    public int getOpenCount() {
+        return openCount.get();
+    }
+    /**
+     * @return The number of borrowed connections
+     */
+    public int getActiveCount() {
+        return leases.size();
+    }
+    /**
+     * @return The number of open connections waiting to be borrowed
+     */
+    public int getIdleCount() {
+        synchronized (idle) {
+            return idle.size();
+        }
+    }
+    /**
+     * @return The approximate number of threads waiting for a connection
+     */
+    public int getWaitingCount() {
+        return permits.getQueueLength();
+    }
+    /**
+     * @return The number of connections opened since the pool was created
+     */
+    public long getCreatedCount() {
+        return createdCount.get();
+    }
+    /**
+     * @return The number of times a connection was borrowed
+     */
+    public long getBorrowCount() {
+        return borrowCount.get();
+    }
+    /**
+     * @return The average time spent borrowing a connection in milliseconds, including opening new connections
+     */
+    public double getAverageWaitMillis() {
+        long borrows = borrowCount.get();
+        return borrows == 0 ? 0 : waitNanos.get() / 1_000_000.0 / borrows;
+    }
+    /**
+     * @return The number of times no connection was returned before the timeout
+     */
+    public long getTimeoutCount() {
+        return timeoutCount.get();
+    }
+    /**
+     * @return The number of connections closed for being idle too long
+     */
+    public long getEvictedCount() {
+        return evictedCount.get();
+    }
+    /**
+     * @return The number of idle connections closed because they were no longer valid
+     */
+    public long getInvalidCount() {
+        return invalidCount.get();
+    }
+    /**
+     * @return The number of connections held longer than the leak threshold
+     */
+    public long getLeakCount() {
+        return leakCount.get();
+    }
+    /**
+     * @return The number of times a statement was reused from a connection's statement cache
+     */
+    public long getStatementHitCount() {
+        return statementHits.get();
+    }
+    /**
+     * @return The number of times a statement was prepared because it was not in the statement cache
+     */
+    public long getStatementMissCount() {
+        return statementMisses.get();
+    }
+
+    private static final class IdleConnection {
+        private final PooledConnection connection;
+        private final long since;
+
+        private IdleConnection(PooledConnection connection, long since) {
+            this.connection = connection;
+            this.since = since;
+        }
+    }
+
+    // A borrowed connection, with a proxy that returns it to the pool when closed
+    private final class Lease {
+        private final PooledConnection connection;
+        private final Connection proxy;
+        private final long since = System.nanoTime();
+        private final String threadName = Thread.currentThread().getName();
+        // Filling in a stack trace is slow, so it is only captured if leaks are reported
+        private final @Nullable Exception origin =
+                leakThresholdNanos > 0 ? new Exception("Connection borrowed here") : null;
+        private final AtomicBoolean returned = new AtomicBoolean();
+        private volatile boolean reported;
+
+        private Lease(PooledConnection connection) {
+            this.connection = connection;
+            proxy = (Connection) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (p, method, args) -> {
+                switch (method.getName()) {
+                    case "close":
+                        release(this);
+                        return null;
+                    case "isClosed":
+                        return returned.get() || connection.connection.isClosed();
+                    case "equals":
+                        return p == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(p);
+                    case "toString":
+                        return "Pooled " + connection;
+                }
+                if (returned.get()) {
+                    throw new SQLException("Connection was already returned to the pool");
+                }
+                if (method.getName().equals("prepareStatement") && args.length == 1) {
+                    return connection.prepareStatement((String) args[0], (Connection) p);
+                }
+                try {
+                    return method.invoke(connection.connection, args);
+                } catch (InvocationTargetException ex) {
+                    throw ex.getCause();
+                }
+            });
+        }
+    }
+
+    // An open connection and the statements cached on it, used by one borrower at a time
+    private final class PooledConnection {
+        private final Connection connection;
+        // Least recently used first
+        private final Map<String, CachedStatement> statements =
+                new LinkedHashMap<String, CachedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if (size() <= STATEMENT_CACHE_SIZE) {
+                    return false;
+                }
+                eldest.getValue().evict();
+                return true;
+            }
+        };
+
+        private PooledConnection(Connection connection) {
+            this.connection = connection;
+        }
+
+        private PreparedStatement prepareStatement(String sql, Connection proxy) throws SQLException {
+            CachedStatement cached = statements.get(sql);
+            if (cached != null && !cached.inUse) {
+                statementHits.incrementAndGet();
+            } else {
+                statementMisses.incrementAndGet();
+                PreparedStatement statement = connection.prepareStatement(sql);
+                if (cached != null) {
+                    // The same SQL is prepared twice at once, so the second statement is not cached
+                    return statement;
+                }
+                cached = new CachedStatement(statement, proxy);
+                statements.put(sql, cached);
+            }
+            cached.inUse = true;
+            cached.connectionProxy = proxy;
+            return cached.proxy;
+        }
+
+        // Makes every cached statement available again when the connection is returned, even if it was not closed
+        private void releaseStatements() {
+            for (CachedStatement cached : statements.values()) {
+                cached.inUse = false;
+            }
+        }
+    }
+
+    // A prepared statement that stays open when closed, with a proxy that makes it available again
+    private static final class CachedStatement {
+        private final PreparedStatement statement;
+        private final PreparedStatement proxy;
+        private Connection connectionProxy;
+        private boolean inUse;
+        private boolean evicted;
+
+        private CachedStatement(PreparedStatement statement, Connection connectionProxy) {
+            this.statement = statement;
+            this.connectionProxy = connectionProxy;
+            proxy = (PreparedStatement) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, (p, method, args) -> {
+                switch (method.getName()) {
+                    case "close":
+                        if (inUse) {
+                            inUse = false;
+                            if (evicted) {
+                                statement.close();
+                            } else {
+                                ResultSet rs = statement.getResultSet();
+                                if (rs != null) {
+                                    rs.close();
+                                }
+                                statement.clearParameters();
+                                statement.clearBatch();
+                            }
+                        }
+                        return null;
+                    case "isClosed":
+                        return !inUse || statement.isClosed();
+                    case "getConnection":
+                        return this.connectionProxy;
+                    case "equals":
+                        return p == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(p);
+                    case "toString":
+                        return "Cached " + statement;
+                }
+                if (!inUse) {
+                    throw new SQLException("Statement was already closed");
+                }
+                try {
+                    return method.invoke(statement, args);
+                } catch (InvocationTargetException ex) {
+                    throw ex.getCause();
+                }
+            });
+        }
+
+        private void evict() {
+            evicted = true;
+            if (!inUse) {
+                try {
+                    statement.close();
+                } catch (SQLException ex) {
+                    ex.printStackTrace();
+                }
+            }
+        }
+    }
+
+}
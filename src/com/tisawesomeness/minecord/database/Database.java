@@ -1,24 +1,49 @@
 package com.tisawesomeness.minecord.database;
 
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.mysql.cj.jdbc.MysqlDataSource;
 import com.tisawesomeness.minecord.Config;
+import com.tisawesomeness.minecord.util.type.ConcurrentLongObjectMap;
+import com.tisawesomeness.minecord.util.type.LongBloomFilter;
 import org.sqlite.SQLiteDataSource;
 
+import javax.annotation.Nullable;
 import javax.sql.DataSource;
 import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.HashMap;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 public class Database {
 
-    private static DataSource source;
-    private static final HashMap<Long, DbGuild> guilds = new HashMap<>();
-    private static final HashMap<Long, DbUser> users = new HashMap<>();
+    private static volatile ConnectionPool pool;
+    private static volatile Dialect dialect;
+    private static volatile WriteBehindQueue writes;
+    private static final String PURGE_GUILD = "DELETE FROM guild WHERE id=? AND prefix IS NULL AND lang IS NULL " +
+            "AND banned=0 AND noCooldown=0 AND deleteCommands IS NULL AND noMenu IS NULL;";
+    private static final String PURGE_USER = "DELETE FROM user WHERE id=? AND banned=0 AND elevated=0;";
+    // Every row is loaded into these maps unless settings are loaded lazily
+    // Read on every message without locking, so rows are immutable and replaced on change
+    private static final ConcurrentLongObjectMap<DbGuild> guilds = new ConcurrentLongObjectMap<>();
+    private static final ConcurrentLongObjectMap<DbUser> users = new ConcurrentLongObjectMap<>();
+    // Checked on every message, so these are loaded even when settings are loaded lazily
+    // Replaced on change so they are read without locking
+    private static volatile Set<Long> bannedGuildIds = Collections.emptySet();
+    private static volatile Set<Long> bannedUserIds = Collections.emptySet();
+    private static volatile Set<Long> elevatedIds = Collections.emptySet();
+    // Checked before the ban sets, since almost no id is banned. Rebuilt on every ban change, null until loaded
+    private static volatile @Nullable LongBloomFilter banFilter;
+    // Null unless settings are loaded lazily
+    private static volatile @Nullable SettingsCache<DbGuild> guildCache;
+    private static volatile @Nullable SettingsCache<DbUser> userCache;
 
     private static Connection getConnect() throws SQLException {
-        return source.getConnection();
+        return pool.getConnection();
     }
 
     public static void init() throws SQLException {
@@ -36,6 +61,9 @@ public class Database {
             url += "sqlite:";
         }
         url += Config.getHost();
+        DataSource source;
+        Dialect newDialect;
+        int poolSize;
         if (Config.getType().equals("mysql")) {
             MysqlDataSource ds = new MysqlDataSource();
             ds.setUrl(url + ":" + Config.getPort() + "/" + Config.getDbName());
@@ -43,17 +71,66 @@ public class Database {
             ds.setPassword(Config.getPass());
             ds.setUseSSL(false);
             source = ds;
+            newDialect = Dialect.MYSQL;
+            poolSize = Config.getPoolSize();
         } else {
             SQLiteDataSource ds = new SQLiteDataSource();
             ds.setUrl(url);
             source = ds;
+            newDialect = Dialect.SQLITE;
+            // SQLite only allows one writer at a time
+            poolSize = 1;
         }
-
-        //Connect to database
-        Connection connect = getConnect();
+        ConnectionPool newPool = new ConnectionPool(source, poolSize, Config.getPoolTimeout(),
+                Config.getPoolIdleTimeout(), Config.getPoolLeakThreshold());
 
         //Create tables if they do not exist
-        connect.createStatement().executeUpdate(
+        try (Connection connect = newPool.getConnection(); Statement st = connect.createStatement()) {
+            createTables(st);
+        } catch (SQLException ex) {
+            newPool.close();
+            throw ex;
+        }
+
+        WriteBehindQueue newWrites = new WriteBehindQueue(newPool, newDialect);
+        SettingsCache<DbGuild> newGuildCache = null;
+        SettingsCache<DbUser> newUserCache = null;
+        if (Config.getLazySettings()) {
+            int cacheSize = Config.getSettingsCacheSize();
+            newGuildCache = new SettingsCache<>(newPool, newWrites, "guild", Database::readGuild, cacheSize,
+                    Config.getRecordCacheStats());
+            newUserCache = new SettingsCache<>(newPool, newWrites, "user", Database::readUser, cacheSize,
+                    Config.getRecordCacheStats());
+        }
+
+        //Replace the pool and the caches that load from it together, connections borrowed from the old pool are closed when returned
+        //Changes are blocked until the old queue is written, so none are written to the new database out of order
+        synchronized (Database.class) {
+            if (writes != null) {
+                writes.close();
+            }
+            ConnectionPool oldPool = pool;
+            pool = newPool;
+            dialect = newDialect;
+            writes = newWrites;
+            guildCache = newGuildCache;
+            userCache = newUserCache;
+            if (oldPool != null) {
+                oldPool.close();
+            }
+        }
+
+        // Add owner to elevated
+        if (!Config.getOwner().equals("0")) {
+            changeElevated(Long.parseLong(Config.getOwner()), true);
+        }
+
+        refresh();
+        System.out.println("Database connected.");
+
+    }
+    private static void createTables(Statement st) throws SQLException {
+        st.executeUpdate(
                 "CREATE TABLE IF NOT EXISTS guild (" +
                         "  id BIGINT(18) NOT NULL," +
                         "  prefix TINYTEXT," +
@@ -64,175 +141,326 @@ public class Database {
                         "  noMenu TINYINT(1)," +
                         "  PRIMARY KEY (id));"
         );
-        connect.createStatement().executeUpdate(
+        st.executeUpdate(
                 "CREATE TABLE IF NOT EXISTS user (" +
                         "  id BIGINT(18) NOT NULL," +
                         "  elevated TINYINT(1) NOT NULL DEFAULT 0," +
                         "  banned TINYINT(1) NOT NULL DEFAULT 0," +
                         "  PRIMARY KEY (id));"
         );
-
-        // Add owner to elevated
-        if (!Config.getOwner().equals("0")) {
-            changeElevated(Long.parseLong(Config.getOwner()), true);
-        }
-
-        refresh();
-        System.out.println("Database connected.");
-
     }
 
+    /**
+     * Reloads every guild and user, or clears the settings caches if settings are loaded lazily.
+     * @throws SQLException If the tables could not be read
+     */
     public static void refresh() throws SQLException {
-        Connection connect = getConnect();
-
-        //Import guild list
-        ResultSet rs = connect.createStatement().executeQuery(
-                "SELECT * FROM guild;"
-        );
-        while (rs.next()) {
-            long id = rs.getLong(1);
-            Boolean deleteCommands = rs.getBoolean(6);
-            if (rs.wasNull()) deleteCommands = null;
-            Boolean noMenu = rs.getBoolean(7);
-            if (rs.wasNull()) noMenu = null;
-            guilds.put(id, new DbGuild(
-                    id,
-                    rs.getString(2),
-                    rs.getString(3),
-                    rs.getBoolean(4),
-                    rs.getBoolean(5),
-                    deleteCommands,
-                    noMenu
-            ));
+        // Changes lock before borrowing a connection, so this must too
+        synchronized (Database.class) {
+            // Otherwise rows read from the tables could be older than the ones in memory
+            // The lock keeps new changes from being queued while waiting, and the writer never takes it
+            if (!awaitWritten()) {
+                throw new SQLException("Queued changes were not written in time, so settings were not refreshed");
+            }
+            try (Connection connect = getConnect(); Statement st = connect.createStatement()) {
+                refreshIds(st);
+                SettingsCache<DbGuild> guildCache = Database.guildCache;
+                SettingsCache<DbUser> userCache = Database.userCache;
+                if (guildCache != null && userCache != null) {
+                    guildCache.invalidateAll();
+                    userCache.invalidateAll();
+                    return;
+                }
+                refreshGuilds(st);
+                refreshUsers(st);
+            }
         }
-        rs.close();
-
-        //Import user list
-        rs = connect.createStatement().executeQuery(
-                "SELECT * FROM user;"
-        );
-        while (rs.next()) {
-            long id = rs.getLong(1);
-            users.put(id, new DbUser(
-                    id,
-                    rs.getBoolean(2),
-                    rs.getBoolean(3)
-            ));
+    }
+    // Bans and elevated users are loaded even when settings are loaded lazily, so they are never waited on
+    private static void refreshIds(Statement st) throws SQLException {
+        bannedGuildIds = readIds(st, "SELECT id FROM guild WHERE banned=1;");
+        bannedUserIds = readIds(st, "SELECT id FROM user WHERE banned=1;");
+        elevatedIds = readIds(st, "SELECT id FROM user WHERE elevated=1;");
+        rebuildBanFilter();
+    }
+    private static Set<Long> readIds(Statement st, String sql) throws SQLException {
+        Set<Long> ids = new HashSet<>();
+        try (ResultSet rs = st.executeQuery(sql)) {
+            while (rs.next()) {
+                ids.add(rs.getLong(1));
+            }
         }
-        rs.close();
+        return Collections.unmodifiableSet(ids);
     }
-
-    public static void close() throws SQLException {
-        Connection connect = getConnect();
-        if (connect != null) connect.close();
+    // Called with the lock held
+    private static void rebuildBanFilter() {
+        Set<Long> bannedGuildIds = Database.bannedGuildIds;
+        Set<Long> bannedUserIds = Database.bannedUserIds;
+        LongBloomFilter filter = new LongBloomFilter(bannedGuildIds.size() + bannedUserIds.size());
+        for (long id : bannedGuildIds) {
+            filter.add(id);
+        }
+        for (long id : bannedUserIds) {
+            filter.add(id);
+        }
+        banFilter = filter;
     }
-
-    public static void changePrefix(long id, String prefix) throws SQLException {
-
-        Connection connect = getConnect();
-        PreparedStatement st = connect.prepareStatement(
-                "REPLACE INTO guild (id, prefix, lang, banned, noCooldown, deleteCommands, noMenu) VALUES(?, ?, " +
-                        "COALESCE((SELECT lang FROM (SELECT * FROM guild) AS temp WHERE id=?), NULL), " +
-                        "COALESCE((SELECT banned FROM (SELECT * FROM guild) AS temp WHERE id=?), 0), " +
-                        "COALESCE((SELECT noCooldown FROM (SELECT * FROM guild) AS temp WHERE id=?), 0), " +
-                        "COALESCE((SELECT deleteCommands FROM (SELECT * FROM guild) AS temp WHERE id=?), NULL), " +
-                        "COALESCE((SELECT noMenu FROM (SELECT * FROM guild) AS temp WHERE id=?), NULL));"
-        );
-        st.setLong(1, id);
-        st.setString(2, prefix);
-        st.setLong(3, id);
-        st.setLong(4, id);
-        st.setLong(5, id);
-        st.setLong(6, id);
-        st.setLong(7, id);
-        st.executeUpdate();
-
-        //Mirror change in local guild list
-        DbGuild g = guilds.get(id);
-        if (g == null) {
-            guilds.put(id, new DbGuild(id, prefix, null, false, false, null, null));
+    // Copies a set with an id added or removed, since readers do not lock
+    private static Set<Long> withId(Set<Long> ids, long id, boolean present) {
+        if (ids.contains(id) == present) {
+            return ids;
+        }
+        Set<Long> copy = new HashSet<>(ids);
+        if (present) {
+            copy.add(id);
         } else {
-            g.prefix = prefix;
+            copy.remove(id);
         }
-
-        //Delete guild if it contains only default values
-        if (prefix.equals(Config.getPrefix())) {
-            purgeGuilds(id);
+        return Collections.unmodifiableSet(copy);
+    }
+    /**
+     * @param id A guild or user id
+     * @return False if the id is definitely not banned, true if it might be
+     */
+    private static boolean mightBeBanned(long id) {
+        LongBloomFilter filter = banFilter;
+        return filter == null || filter.mightContain(id);
+    }
+    private static void refreshGuilds(Statement st) throws SQLException {
+        try (ResultSet rs = st.executeQuery("SELECT * FROM guild;")) {
+            while (rs.next()) {
+                DbGuild g = readGuild(rs);
+                guilds.put(g.id, g);
+            }
         }
-
     }
-
-    public static String getPrefix(long id) {
-        DbGuild guild = guilds.get(id);
-        String prefix = guild == null ? Config.getPrefix() : guild.prefix;
-        return prefix == null ? Config.getPrefix() : prefix;
+    private static void refreshUsers(Statement st) throws SQLException {
+        try (ResultSet rs = st.executeQuery("SELECT * FROM user;")) {
+            while (rs.next()) {
+                DbUser u = readUser(rs);
+                users.put(u.id, u);
+            }
+        }
     }
-
-    public static void changeBannedGuild(long id, boolean banned) throws SQLException {
-
-        Connection connect = getConnect();
-        PreparedStatement st = connect.prepareStatement(
-                "REPLACE INTO guild (id, prefix, lang, banned, noCooldown, deleteCommands, noMenu) VALUES(?, " +
-                        "COALESCE((SELECT prefix FROM (SELECT * FROM guild) AS temp WHERE id=?), NULL), " +
-                        "COALESCE((SELECT lang FROM (SELECT * FROM guild) AS temp WHERE id=?), NULL), ?, " +
-                        "COALESCE((SELECT noCooldown FROM (SELECT * FROM guild) AS temp WHERE id=?), 0), " +
-                        "COALESCE((SELECT deleteCommands FROM (SELECT * FROM guild) AS temp WHERE id=?), 0), " +
-                        "COALESCE((SELECT noMenu FROM (SELECT * FROM guild) AS temp WHERE id=?), 0));"
+    private static DbGuild readGuild(ResultSet rs) throws SQLException {
+        long id = rs.getLong(1);
+        Boolean deleteCommands = rs.getBoolean(6);
+        if (rs.wasNull()) deleteCommands = null;
+        Boolean noMenu = rs.getBoolean(7);
+        if (rs.wasNull()) noMenu = null;
+        return new DbGuild(
+                id,
+                rs.getString(2),
+                rs.getString(3),
+                rs.getBoolean(4),
+                rs.getBoolean(5),
+                deleteCommands,
+                noMenu
         );
-        st.setLong(1, id);
-        st.setLong(2, id);
-        st.setLong(3, id);
-        st.setBoolean(4, banned);
-        st.setLong(5, id);
-        st.setLong(6, id);
-        st.setLong(7, id);
-        st.executeUpdate();
+    }
+    private static DbUser readUser(ResultSet rs) throws SQLException {
+        return new DbUser(
+                rs.getLong(1),
+                rs.getBoolean(2),
+                rs.getBoolean(3)
+        );
+    }
+
+    /**
+     * Starts loading the settings of guilds this process will need, such as the guilds on its shards.
+     * Does nothing unless settings are loaded lazily, since every guild is already loaded.
+     * @param ids The guild ids
+     */
+    public static void preloadGuilds(Collection<Long> ids) {
+        SettingsCache<DbGuild> guildCache = Database.guildCache;
+        if (guildCache != null) {
+            guildCache.preload(ids);
+        }
+    }
 
-        //Mirror change in local user list
-        DbGuild g = guilds.get(id);
-        if (g == null) {
-            guilds.put(id, new DbGuild(id, Config.getPrefix(), null, banned, false, null, null));
+    // Reads go through these, so the rest of the class works the same whether settings are loaded lazily or not
+    private static @Nullable DbGuild getGuild(long id) throws SQLException {
+        SettingsCache<DbGuild> guildCache = Database.guildCache;
+        return guildCache == null ? guilds.get(id) : guildCache.get(id);
+    }
+    // Settings fall back to the defaults if the row could not be loaded, which is safe since they are not permissions
+    private static @Nullable DbGuild getGuildOrDefaults(long id) {
+        try {
+            return getGuild(id);
+        } catch (SQLException ex) {
+            ex.printStackTrace();
+            return null;
+        }
+    }
+    private static void putGuild(long id, @Nullable DbGuild g) {
+        SettingsCache<DbGuild> guildCache = Database.guildCache;
+        if (guildCache != null) {
+            guildCache.put(id, g);
+        } else if (g == null) {
+            guilds.remove(id);
+        } else {
+            guilds.put(id, g);
+        }
+    }
+    private static @Nullable DbUser getUser(long id) throws SQLException {
+        SettingsCache<DbUser> userCache = Database.userCache;
+        return userCache == null ? users.get(id) : userCache.get(id);
+    }
+    private static void putUser(long id, @Nullable DbUser u) {
+        SettingsCache<DbUser> userCache = Database.userCache;
+        if (userCache != null) {
+            userCache.put(id, u);
+        } else if (u == null) {
+            users.remove(id);
         } else {
-            g.banned = banned;
+            users.put(id, u);
         }
+    }
 
-        //Delete guild if it contains only default values
-        if (!banned) purgeGuilds(id);
+    /**
+     * Writes every queued change, then closes every connection.
+     */
+    public static void close() {
+        WriteBehindQueue writes = Database.writes;
+        if (writes != null) writes.close();
+        ConnectionPool pool = Database.pool;
+        if (pool != null) pool.close();
+    }
 
+    /**
+     * Waits for every queued change to be written to the database, for up to 10 seconds.
+     * @return Whether every change was written
+     */
+    public static boolean awaitWritten() {
+        WriteBehindQueue writes = Database.writes;
+        if (writes == null) {
+            return true;
+        }
+        try {
+            return writes.awaitWritten(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
     }
 
-    public static void changeDeleteCommands(long id, boolean deleteCommands) throws SQLException {
+    /**
+     * @return The pool of database connections, or null if the database was never initialized
+     */
+    public static ConnectionPool getPool() {
+        return pool;
+    }
+    /**
+     * @return The number of changed rows waiting to be written
+     */
+    public static int getPendingWriteCount() {
+        WriteBehindQueue writes = Database.writes;
+        return writes == null ? 0 : writes.getPendingCount();
+    }
+    /**
+     * @return The number of rows written since the database was initialized, counting merged changes to a row once
+     */
+    public static long getWrittenCount() {
+        WriteBehindQueue writes = Database.writes;
+        return writes == null ? 0 : writes.getWrittenCount();
+    }
+    /**
+     * @return The number of batches of changes written since the database was initialized
+     */
+    public static long getWriteBatchCount() {
+        WriteBehindQueue writes = Database.writes;
+        return writes == null ? 0 : writes.getBatchCount();
+    }
+    /**
+     * @return The number of times writing a batch of changes failed and was retried
+     */
+    public static long getWriteRetryCount() {
+        WriteBehindQueue writes = Database.writes;
+        return writes == null ? 0 : writes.getRetryCount();
+    }
+    /**
+     * @return The number of changed rows that were dropped after failing to be written too many times
+     */
+    public static long getDroppedWriteCount() {
+        WriteBehindQueue writes = Database.writes;
+        return writes == null ? 0 : writes.getDroppedCount();
+    }
+    /**
+     * @return The guild settings cache stats, or null if settings are not loaded lazily
+     */
+    public static @Nullable CacheStats getGuildCacheStats() {
+        SettingsCache<DbGuild> guildCache = Database.guildCache;
+        return guildCache == null ? null : guildCache.stats();
+    }
+    /**
+     * @return The user settings cache stats, or null if settings are not loaded lazily
+     */
+    public static @Nullable CacheStats getUserCacheStats() {
+        SettingsCache<DbUser> userCache = Database.userCache;
+        return userCache == null ? null : userCache.stats();
+    }
+    /**
+     * @return The number of cached guild and user ids, or 0 if settings are not loaded lazily
+     */
+    public static long getSettingsCacheSize() {
+        SettingsCache<DbGuild> guildCache = Database.guildCache;
+        SettingsCache<DbUser> userCache = Database.userCache;
+        return (guildCache == null ? 0 : guildCache.size()) + (userCache == null ? 0 : userCache.size());
+    }
 
-        Connection connect = getConnect();
-        PreparedStatement st = connect.prepareStatement(
-                "REPLACE INTO guild (id, prefix, lang, banned, noCooldown, deleteCommands, noMenu) VALUES(?, " +
-                        "COALESCE((SELECT prefix FROM (SELECT * FROM guild) AS temp WHERE id=?), NULL), " +
-                        "COALESCE((SELECT lang FROM (SELECT * FROM guild) AS temp WHERE id=?), NULL), " +
-                        "COALESCE((SELECT banned FROM (SELECT * FROM guild) AS temp WHERE id=?), 0), " +
-                        "COALESCE((SELECT noCooldown FROM (SELECT * FROM guild) AS temp WHERE id=?), 0), ?, " +
-                        "COALESCE((SELECT noMenu FROM (SELECT * FROM guild) AS temp WHERE id=?), NULL));"
-        );
-        st.setLong(1, id);
-        st.setLong(2, id);
-        st.setLong(3, id);
-        st.setLong(4, id);
-        st.setLong(5, id);
-        st.setBoolean(6, deleteCommands);
-        st.setLong(7, id);
-        st.executeUpdate();
+    // Changes are synchronized so two changes to the same row do not overwrite each other's copy,
+    // then written in the background so commands do not wait on the database
+    // If the current row could not be loaded, the change fails instead of overwriting the row with defaults
+    public static synchronized void changePrefix(long id, String prefix) throws SQLException {
+        DbGuild g = getGuild(id);
+        setGuild((g == null ? DbGuild.defaults(id) : g).withPrefix(prefix), "prefix", prefix);
+    }
+    public static synchronized void changeBannedGuild(long id, boolean banned) throws SQLException {
+        DbGuild g = getGuild(id);
+        setGuild((g == null ? DbGuild.defaults(id) : g).withBanned(banned), "banned", banned);
+        bannedGuildIds = withId(bannedGuildIds, id, banned);
+        rebuildBanFilter();
+    }
+    public static synchronized void changeDeleteCommands(long id, boolean deleteCommands) throws SQLException {
+        DbGuild g = getGuild(id);
+        setGuild((g == null ? DbGuild.defaults(id) : g).withDeleteCommands(deleteCommands), "deleteCommands", deleteCommands);
+    }
+    public static synchronized void changeUseMenu(long id, boolean useMenu) throws SQLException {
+        DbGuild g = getGuild(id);
+        setGuild((g == null ? DbGuild.defaults(id) : g).withNoMenu(!useMenu), "noMenu", !useMenu);
+    }
+    public static synchronized void changeElevated(long id, boolean elevated) throws SQLException {
+        DbUser u = getUser(id);
+        setUser((u == null ? DbUser.defaults(id) : u).withElevated(elevated), "elevated", elevated);
+        elevatedIds = withId(elevatedIds, id, elevated);
+    }
+    public static synchronized void changeBannedUser(long id, boolean banned) throws SQLException {
+        DbUser u = getUser(id);
+        setUser((u == null ? DbUser.defaults(id) : u).withBanned(banned), "banned", banned);
+        bannedUserIds = withId(bannedUserIds, id, banned);
+        rebuildBanFilter();
+    }
 
-        //Mirror change in local guild list
-        DbGuild g = guilds.get(id);
-        if (g == null) {
-            guilds.put(id, new DbGuild(id, Config.getPrefix(), null, false, false, deleteCommands, null));
-        } else {
-            g.deleteCommands = deleteCommands;
-        }
+    // Updates the local copy now and queues the change, deleting the row if it contains only default values
+    private static void setGuild(DbGuild g, String column, Object value) {
+        boolean purge = g.isDefault();
+        putGuild(g.id, purge ? null : g);
+        writes.set("guild", g.id, column, value, purge ? PURGE_GUILD : null, purge ? null : g);
+    }
+    private static void setUser(DbUser u, String column, Object value) {
+        boolean purge = u.isDefault();
+        putUser(u.id, purge ? null : u);
+        writes.set("user", u.id, column, value, purge ? PURGE_USER : null, purge ? null : u);
+    }
 
+    public static String getPrefix(long id) {
+        DbGuild guild = getGuildOrDefaults(id);
+        String prefix = guild == null ? Config.getPrefix() : guild.prefix;
+        return prefix == null ? Config.getPrefix() : prefix;
     }
 
     public static boolean getDeleteCommands(long id) {
-        DbGuild guild = guilds.get(id);
+        DbGuild guild = getGuildOrDefaults(id);
         Boolean deleteCommands;
         if (guild == null) {
             deleteCommands = Config.getDeleteCommands();
@@ -242,38 +470,8 @@ public class Database {
         return deleteCommands == null ? Config.getDeleteCommands() : deleteCommands;
     }
 
-    public static void changeUseMenu(long id, boolean useMenu) throws SQLException {
-
-        Connection connect = getConnect();
-        PreparedStatement st = connect.prepareStatement(
-                "REPLACE INTO guild (id, prefix, lang, banned, noCooldown, deleteCommands, noMenu) VALUES(?, " +
-                        "COALESCE((SELECT prefix FROM (SELECT * FROM guild) AS temp WHERE id=?), NULL), " +
-                        "COALESCE((SELECT lang FROM (SELECT * FROM guild) AS temp WHERE id=?), NULL), " +
-                        "COALESCE((SELECT banned FROM (SELECT * FROM guild) AS temp WHERE id=?), 0), " +
-                        "COALESCE((SELECT noCooldown FROM (SELECT * FROM guild) AS temp WHERE id=?), 0), " +
-                        "COALESCE((SELECT deleteCommands FROM (SELECT * FROM guild) AS temp WHERE id=?), NULL), ?);"
-        );
-        st.setLong(1, id);
-        st.setLong(2, id);
-        st.setLong(3, id);
-        st.setLong(4, id);
-        st.setLong(5, id);
-        st.setLong(6, id);
-        st.setBoolean(7, !useMenu);
-        st.executeUpdate();
-
-        //Mirror change in local guild list
-        DbGuild g = guilds.get(id);
-        if (g == null) {
-            guilds.put(id, new DbGuild(id, Config.getPrefix(), null, false, false, null, !useMenu));
-        } else {
-            g.noMenu = !useMenu;
-        }
-
-    }
-
     public static boolean getUseMenu(long id) {
-        DbGuild guild = guilds.get(id);
+        DbGuild guild = getGuildOrDefaults(id);
         Boolean useMenu;
         if (guild == null) {
             useMenu = Config.getUseMenus();
@@ -283,80 +481,29 @@ public class Database {
         return useMenu == null ? Config.getUseMenus() : useMenu;
     }
 
-    private static void purgeGuilds(long id) throws SQLException {
-        PreparedStatement st = getConnect().prepareStatement(
-                "DELETE FROM guild WHERE prefix IS NULL AND lang IS NULL AND banned=0 AND noCooldown=0 AND deleteCommands IS NULL AND noMenu IS NULL;"
-        );
-        if (st.executeUpdate() > 0) guilds.remove(id);
-    }
-
-    public static void changeElevated(long id, boolean elevated) throws SQLException {
-
-        Connection connect = getConnect();
-        PreparedStatement st = connect.prepareStatement(
-                "REPLACE INTO user (id, elevated, banned) VALUES(?, ?, " +
-                        "COALESCE((SELECT banned FROM (SELECT * FROM user) AS temp WHERE id=?), 0));"
-        );
-        st.setLong(1, id);
-        st.setBoolean(2, elevated);
-        st.setLong(3, id);
-        st.executeUpdate();
-
-        //Mirror change in local user list
-        DbUser u = users.get(id);
-        if (u == null) {
-            users.put(id, new DbUser(id, elevated, false));
-        } else {
-            u.elevated = elevated;
-        }
-
-        //Delete user if it contains only default values
-        if (!elevated) purgeUsers(id);
-
-    }
-
     public static boolean isElevated(long id) {
-        DbUser user = users.get(id);
-        return user == null ? false : user.elevated;
+        return elevatedIds.contains(id);
     }
 
-    public static void changeBannedUser(long id, boolean banned) throws SQLException {
-
-        Connection connect = getConnect();
-        PreparedStatement st = connect.prepareStatement(
-                "REPLACE INTO user (id, elevated, banned) VALUES(?, " +
-                        "COALESCE((SELECT banned FROM (SELECT * FROM user) AS temp WHERE id=?), 0), ?);"
-        );
-        st.setLong(1, id);
-        st.setLong(2, id);
-        st.setBoolean(3, banned);
-        st.executeUpdate();
-
-        //Mirror change in local user list
-        DbUser u = users.get(id);
-        if (u == null) {
-            users.put(id, new DbUser(id, false, banned));
-        } else {
-            u.banned = banned;
-        }
-
-        //Delete user if it contains only default values
-        if (!banned) purgeUsers(id);
-
+    public static boolean isBanned(long id) {
+        if (!mightBeBanned(id)) return false;
+        return bannedGuildIds.contains(id) || bannedUserIds.contains(id);
     }
-
-    private static void purgeUsers(long id) throws SQLException {
-        PreparedStatement st = getConnect().prepareStatement(
-                "DELETE FROM user WHERE banned=0 AND elevated=0;"
-        );
-        if (st.executeUpdate() > 0) users.remove(id);
+    /**
+     * Checks if a guild is banned, without looking up users.
+     * Prefer this over {@link #isBanned(long)} when the id is known to be a guild.
+     */
+    public static boolean isGuildBanned(long id) {
+        if (!mightBeBanned(id)) return false;
+        return bannedGuildIds.contains(id);
     }
-
-    public static boolean isBanned(long id) {
-        DbGuild guild = guilds.get(id);
-        if (guild != null) return guild.banned;
-        DbUser user = users.get(id);
-        return user != null && user.banned;
+    /**
+     * Checks if a user is banned, without looking up guilds.
+     * Prefer this over {@link #isBanned(long)} when the id is known to be a user.
+     */
+    public static boolean isUserBanned(long id) {
+        if (!mightBeBanned(id)) return false;
+        return bannedUserIds.contains(id);
     }
 
 }
@@ -1,14 +1,18 @@
 package com.tisawesomeness.minecord.database;
 
+/**
+ * The settings of a guild, as stored in the database.
+ * Immutable, so a changed guild is replaced with a copy.
+ */
 public class DbGuild {
 
-    public long id;
-    public String prefix;
-    public String lang;
-    public boolean banned;
-    public boolean noCooldown;
-    public Boolean deleteCommands;
-    public Boolean noMenu;
+    public final long id;
+    public final String prefix;
+    public final String lang;
+    public final boolean banned;
+    public final boolean noCooldown;
+    public final Boolean deleteCommands;
+    public final Boolean noMenu;
 
     public DbGuild(long id, String prefix, String lang, boolean banned, boolean noCooldown, Boolean deleteCommands, Boolean noMenu) {
         this.id = id;
@@ -20,4 +24,32 @@ public class DbGuild {
         this.noMenu = noMenu;
     }
 
+    /**
+     * @param id The guild id
+     * @return A guild with every setting at its default, matching a new row in the guild table
+     */
+    public static DbGuild defaults(long id) {
+        return new DbGuild(id, null, null, false, false, null, null);
+    }
+
+    /**
+     * @return Whether every setting is at its default, in which case the row does not need to be stored
+     */
+    public boolean isDefault() {
+        return prefix == null && lang == null && !banned && !noCooldown && deleteCommands == null && noMenu == null;
+    }
+
+    public DbGuild withPrefix(String prefix) {
+        return new DbGuild(id, prefix, lang, banned, noCooldown, deleteCommands, noMenu);
+    }
+    public DbGuild withBanned(boolean banned) {
+        return new DbGuild(id, prefix, lang, banned, noCooldown, deleteCommands, noMenu);
+    }
+    public DbGuild withDeleteCommands(Boolean deleteCommands) {
+        return new DbGuild(id, prefix, lang, banned, noCooldown, deleteCommands, noMenu);
+    }
+    public DbGuild withNoMenu(Boolean noMenu) {
+        return new DbGuild(id, prefix, lang, banned, noCooldown, deleteCommands, noMenu);
+    }
+
 }
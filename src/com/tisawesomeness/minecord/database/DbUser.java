@@ -1,10 +1,14 @@
 package com.tisawesomeness.minecord.database;
 
+/**
+ * The settings of a user, as stored in the database.
+ * Immutable, so a changed user is replaced with a copy.
+ */
 public class DbUser {
 
-    public long id;
-    public boolean elevated;
-    public boolean banned;
+    public final long id;
+    public final boolean elevated;
+    public final boolean banned;
 
     public DbUser(long id, boolean elevated, boolean banned) {
         this.id = id;
@@ -12,4 +16,26 @@ public class DbUser {
         this.banned = banned;
     }
 
+    /**
+     * @param id The user id
+     * @return A user with every setting at its default, matching a new row in the user table
+     */
+    public static DbUser defaults(long id) {
+        return new DbUser(id, false, false);
+    }
+
+    /**
+     * @return Whether every setting is at its default, in which case the row does not need to be stored
+     */
+    public boolean isDefault() {
+        return !elevated && !banned;
+    }
+
+    public DbUser withElevated(boolean elevated) {
+        return new DbUser(id, elevated, banned);
+    }
+    public DbUser withBanned(boolean banned) {
+        return new DbUser(id, elevated, banned);
+    }
+
 }
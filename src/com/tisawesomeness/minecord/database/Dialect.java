@@ -0,0 +1,30 @@
+package com.tisawesomeness.minecord.database;
+
+/**
+ * The SQL dialects the database can be stored in.
+ */
+public enum Dialect {
+    MYSQL {
+        @Override
+        public String upsert(String table, String column) {
+            return "INSERT INTO " + table + " (id, " + column + ") VALUES(?, ?) " +
+                    "ON DUPLICATE KEY UPDATE " + column + "=?;";
+        }
+    },
+    SQLITE {
+        @Override
+        public String upsert(String table, String column) {
+            return "INSERT INTO " + table + " (id, " + column + ") VALUES(?, ?) " +
+                    "ON CONFLICT(id) DO UPDATE SET " + column + "=?;";
+        }
+    };
+
+    /**
+     * Builds a statement that sets one column of a row, inserting the row with default values if it does not exist.
+     * <br>The parameters are the id, the new value, and the new value again.
+     * @param table The table, keyed by an {@code id} column
+     * @param column The column to set
+     * @return The SQL statement
+     */
+    public abstract String upsert(String table, String column);
+}
@@ -0,0 +1,224 @@
+package com.tisawesomeness.minecord.database;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import javax.annotation.Nullable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bounded cache of rows from a settings table, loaded by id when first needed.
+ * <br>Ids without a row are cached as empty, since most guilds and users never change a setting.
+ * Rows are loaded on the cache's executor, so only the first lookup of an id waits on the database.
+ * <br>Rows with changes that are not written yet are taken from the write queue instead of the database,
+ * so a changed row that is evicted before it is written is not loaded as it was before the change.
+ * <br>Failed loads are not cached, so after a failure, loads fail right away for a few seconds
+ * instead of every lookup waiting for a connection while the database is down.
+ * @param <T> The type of row
+ */
+final class SettingsCache<T> {
+
+    // Ids per query when preloading
+    private static final int BATCH_SIZE = 500;
+    private static final long FAILURE_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final ConnectionPool pool;
+    private final WriteBehindQueue writes;
+    private final String table;
+    private final RowReader<T> reader;
+    private final AsyncLoadingCache<Long, Optional<T>> cache;
+    // When the last load failed, or 0 if it succeeded
+    private volatile long failedAt;
+
+    /**
+     * Creates an empty cache.
+     * @param pool The pool to load rows with
+     * @param writes The queue changes to the table are written through
+     * @param table The table to load from, keyed by an {@code id} column
+     * @param reader Reads a row from the current row of a result set
+     * @param maxSize The maximum number of ids cached, including ids without a row
+     * @param recordStats Whether to record cache stats
+     */
+    SettingsCache(ConnectionPool pool, WriteBehindQueue writes, String table, RowReader<T> reader, int maxSize,
+                  boolean recordStats) {
+        this.pool = pool;
+        this.writes = writes;
+        this.table = table;
+        this.reader = reader;
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(maxSize);
+        if (recordStats) {
+            builder.recordStats();
+        }
+        cache = builder.buildAsync(new Loader());
+    }
+
+    /**
+     * Gets a row, waiting for it to load if the id is not cached.
+     * @param id The id
+     * @return The row, or null if the id has no row
+     * @throws SQLException If the row could not be loaded
+     */
+    @Nullable T get(long id) throws SQLException {
+        CompletableFuture<Optional<T>> future = cache.get(id);
+        try {
+            return future.join().orElse(null);
+        } catch (CompletionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            throw new SQLException("Could not load " + table + " " + id, cause);
+        }
+    }
+
+    /**
+     * Replaces the cached row for an id.
+     * @param id The id
+     * @param row The new row, or null if the id no longer has a row
+     */
+    void put(long id, @Nullable T row) {
+        cache.put(id, CompletableFuture.completedFuture(Optional.ofNullable(row)));
+    }
+
+    /**
+     * Starts loading every id that is not already cached, without waiting.
+     * @param ids The ids to load
+     */
+    void preload(Collection<Long> ids) {
+        cache.getAll(ids).exceptionally(ex -> {
+            ex.printStackTrace();
+            return null;
+        });
+    }
+
+    /**
+     * Removes every cached row, so each is loaded again when next needed.
+     */
+    void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    /**
+     * @return The approximate number of cached ids
+     */
+    long size() {
+        return cache.synchronous().estimatedSize();
+    }
+    /**
+     * @return The cache stats, which are empty unless stats are recorded
+     */
+    CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    private void checkBackoff() throws SQLException {
+        long failedAt = this.failedAt;
+        if (failedAt != 0 && System.nanoTime() - failedAt < FAILURE_BACKOFF_NANOS) {
+            throw new SQLException("Not loading " + table + " settings, the last load failed less than 5 seconds ago");
+        }
+    }
+
+    // Checked before reading the database, since the row is only removed from the queue once it is written
+    @SuppressWarnings("unchecked")
+    private @Nullable Optional<T> getQueuedRow(long id) {
+        return (Optional<T>) writes.getQueuedRow(table, id);
+    }
+
+    private final class Loader implements CacheLoader<Long, Optional<T>> {
+        @Override
+        public Optional<T> load(Long id) throws SQLException {
+            Optional<T> queued = getQueuedRow(id);
+            if (queued != null) {
+                return queued;
+            }
+            checkBackoff();
+            try {
+                Optional<T> row = loadRow(id);
+                failedAt = 0;
+                return row;
+            } catch (SQLException ex) {
+                failedAt = System.nanoTime();
+                throw ex;
+            }
+        }
+        private Optional<T> loadRow(long id) throws SQLException {
+            try (Connection connect = pool.getConnection();
+                 PreparedStatement st = connect.prepareStatement("SELECT * FROM " + table + " WHERE id=?;")) {
+                st.setLong(1, id);
+                try (ResultSet rs = st.executeQuery()) {
+                    return rs.next() ? Optional.of(reader.read(rs)) : Optional.empty();
+                }
+            }
+        }
+
+        @Override
+        public Map<Long, Optional<T>> loadAll(Iterable<? extends Long> keys) throws SQLException {
+            List<Long> ids = new ArrayList<>();
+            Map<Long, Optional<T>> rows = new HashMap<>();
+            for (Long id : keys) {
+                Optional<T> queued = getQueuedRow(id);
+                if (queued != null) {
+                    rows.put(id, queued);
+                } else {
+                    ids.add(id);
+                    rows.put(id, Optional.empty());
+                }
+            }
+            if (ids.isEmpty()) {
+                return rows;
+            }
+            checkBackoff();
+            // Connections are borrowed per batch so single lookups are not stuck behind a large preload
+            try {
+                for (int start = 0; start < ids.size(); start += BATCH_SIZE) {
+                    List<Long> batch = ids.subList(start, Math.min(start + BATCH_SIZE, ids.size()));
+                    loadBatch(batch, rows);
+                }
+            } catch (SQLException ex) {
+                failedAt = System.nanoTime();
+                throw ex;
+            }
+            failedAt = 0;
+            return rows;
+        }
+        private void loadBatch(List<Long> batch, Map<Long, Optional<T>> rows) throws SQLException {
+            StringJoiner params = new StringJoiner(", ", "SELECT * FROM " + table + " WHERE id IN (", ");");
+            for (int i = 0; i < batch.size(); i++) {
+                params.add("?");
+            }
+            // The SQL changes with the batch size, so it skips the statement cache by passing the default options
+            try (Connection connect = pool.getConnection();
+                 PreparedStatement st = connect.prepareStatement(params.toString(),
+                         ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                for (int i = 0; i < batch.size(); i++) {
+                    st.setLong(i + 1, batch.get(i));
+                }
+                try (ResultSet rs = st.executeQuery()) {
+                    while (rs.next()) {
+                        rows.put(rs.getLong(1), Optional.of(reader.read(rs)));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads a row from a result set.
+     * @param <T> The type of row
+     */
+    @FunctionalInterface
+    interface RowReader<T> {
+        T read(ResultSet rs) throws SQLException;
+    }
+
+}
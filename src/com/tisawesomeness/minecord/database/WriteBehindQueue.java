@@ -0,0 +1,368 @@
+package com.tisawesomeness.minecord.database;
+
+import javax.annotation.Nullable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes setting changes to the database on a background thread, so commands do not wait on the database.
+ * <br>Changes to the same row are merged until they are written, keeping the latest value of each column.
+ * Rows are written in the order they were first changed, all in one transaction per batch.
+ * If a batch fails, it is rolled back and retried with exponential backoff, and any newer changes win.
+ * After a few failed attempts, rows are written one at a time, so a row the database rejects is dropped
+ * and logged instead of blocking every other change. Failures that look temporary, such as timeouts,
+ * never count against a row.
+ * <br>Changes are only kept in memory, so changes that are still queued when the process exits are lost.
+ */
+final class WriteBehindQueue implements AutoCloseable {
+
+    private static final long INITIAL_BACKOFF = 500;
+    private static final long MAX_BACKOFF = TimeUnit.SECONDS.toMillis(30);
+    // Failed batches in a row before rows are written one at a time
+    private static final int MAX_BATCH_ATTEMPTS = 3;
+    // Failed attempts before a row written on its own is dropped
+    private static final int MAX_ROW_ATTEMPTS = 3;
+
+    private final ConnectionPool pool;
+    private final Dialect dialect;
+    // Guarded by this, in the order rows were first changed
+    private LinkedHashMap<RowKey, PendingRow> pending = new LinkedHashMap<>();
+    // Guarded by this, the batch being written, or null if not writing
+    private @Nullable LinkedHashMap<RowKey, PendingRow> writing;
+    private boolean closed;
+    private final Thread writer;
+
+    private volatile long writtenCount;
+    private volatile long batchCount;
+    private volatile long retryCount;
+    private volatile long droppedCount;
+
+    /**
+     * Creates an empty queue and starts its writer thread.
+     * @param pool The pool to write with
+     * @param dialect The dialect of the database
+     */
+    WriteBehindQueue(ConnectionPool pool, Dialect dialect) {
+        this.pool = pool;
+        this.dialect = dialect;
+        writer = new Thread(this::run, "Database Writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues a change to one column of a row.
+     * @param table The table, keyed by an {@code id} column
+     * @param id The id of the row
+     * @param column The column to set
+     * @param value The new value, either a String or a Boolean
+     * @param purgeSql If the row has only default values after this change, a statement that deletes the row
+     *                 when it has only default values, with the id as the only parameter
+     * @param row The whole row after this change, or null if it has only default values
+     */
+    synchronized void set(String table, long id, String column, Object value, @Nullable String purgeSql,
+                          @Nullable Object row) {
+        if (closed) {
+            throw new IllegalStateException("Write queue is closed");
+        }
+        PendingRow pendingRow = pending.computeIfAbsent(new RowKey(table, id), k -> new PendingRow());
+        pendingRow.columns.put(column, value);
+        pendingRow.purgeSql = purgeSql;
+        pendingRow.row = Optional.ofNullable(row);
+        notifyAll();
+    }
+
+    /**
+     * Gets the latest version of a row with changes that are not written yet, including changes being written.
+     * Rows read from the database are older than this until it is written.
+     * @param table The table
+     * @param id The id of the row
+     * @return The whole row, empty if it only has default values, or null if the row has no unwritten changes
+     */
+    synchronized @Nullable Optional<?> getQueuedRow(String table, long id) {
+        RowKey key = new RowKey(table, id);
+        PendingRow row = pending.get(key);
+        if (row == null && writing != null) {
+            row = writing.get(key);
+        }
+        return row == null ? null : row.row;
+    }
+
+    /**
+     * Waits until every change queued so far is written.
+     * @param timeoutMillis The maximum time to wait
+     * @return Whether every change was written before the timeout
+     * @throws InterruptedException If interrupted while waiting
+     */
+    synchronized boolean awaitWritten(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (!pending.isEmpty() || writing != null) {
+            long left = deadline - System.currentTimeMillis();
+            if (left <= 0) {
+                return false;
+            }
+            wait(left);
+        }
+        return true;
+    }
+
+    /**
+     * Stops accepting changes, then waits for every queued change to be written.
+     * Changes still queued when the timeout runs out are lost, and a warning is printed.
+     * @param timeoutMillis The maximum time to wait
+     */
+    void close(long timeoutMillis) {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        try {
+            writer.join(timeoutMillis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            writer.interrupt();
+            System.err.printf("Database writer did not finish, %d changed rows were not saved%n", getPendingCount());
+        }
+    }
+    @Override
+    public void close() {
+        close(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private void run() {
+        long backoff = INITIAL_BACKOFF;
+        int failedBatches = 0;
+        while (true) {
+            LinkedHashMap<RowKey, PendingRow> batch;
+            synchronized (this) {
+                while (pending.isEmpty() && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException ignored) {
+                        return;
+                    }
+                }
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                pending = new LinkedHashMap<>();
+                writing = batch;
+            }
+            LinkedHashMap<RowKey, PendingRow> failed;
+            try {
+                if (failedBatches < MAX_BATCH_ATTEMPTS) {
+                    write(batch);
+                    failed = new LinkedHashMap<>();
+                    writtenCount += batch.size();
+                    batchCount++;
+                } else {
+                    failed = writeEachRow(batch);
+                }
+            } catch (SQLException | RuntimeException ex) {
+                // Anything thrown here must not kill the writer, or the batch would never be cleared
+                System.err.printf("Writing %d changed rows failed%n", batch.size());
+                ex.printStackTrace();
+                failed = batch;
+            }
+            if (failed.isEmpty()) {
+                failedBatches = 0;
+                backoff = INITIAL_BACKOFF;
+                synchronized (this) {
+                    writing = null;
+                    notifyAll();
+                }
+                continue;
+            }
+            failedBatches++;
+            retryCount++;
+            System.err.printf("Retrying %d changed rows in %d ms%n", failed.size(), backoff);
+            requeue(failed);
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException ignored) {
+                return;
+            }
+            backoff = Math.min(backoff * 2, MAX_BACKOFF);
+        }
+    }
+
+    // Puts failed rows back in front of newer changes, without overwriting them
+    private synchronized void requeue(LinkedHashMap<RowKey, PendingRow> failed) {
+        for (Map.Entry<RowKey, PendingRow> entry : pending.entrySet()) {
+            PendingRow newer = entry.getValue();
+            PendingRow old = failed.get(entry.getKey());
+            if (old == null) {
+                failed.put(entry.getKey(), newer);
+            } else {
+                old.columns.putAll(newer.columns);
+                old.purgeSql = newer.purgeSql;
+                old.row = newer.row;
+            }
+        }
+        pending = failed;
+        writing = null;
+        notifyAll();
+    }
+
+    private void write(Map<RowKey, PendingRow> batch) throws SQLException {
+        try (Connection connect = pool.getConnection()) {
+            write(connect, batch);
+        }
+    }
+    /**
+     * Writes each row in its own transaction on one connection.
+     * @return The rows that failed and should be retried, not counting rows that were dropped
+     * @throws SQLException If a connection could not be borrowed, in which case no row was written
+     */
+    private LinkedHashMap<RowKey, PendingRow> writeEachRow(LinkedHashMap<RowKey, PendingRow> batch) throws SQLException {
+        LinkedHashMap<RowKey, PendingRow> failed = new LinkedHashMap<>();
+        try (Connection connect = pool.getConnection()) {
+            for (Map.Entry<RowKey, PendingRow> entry : batch.entrySet()) {
+                RowKey key = entry.getKey();
+                PendingRow row = entry.getValue();
+                try {
+                    write(connect, Collections.singletonMap(key, row));
+                    writtenCount++;
+                    batchCount++;
+                } catch (SQLException ex) {
+                    if (!(ex instanceof SQLTransientException || ex instanceof SQLRecoverableException)) {
+                        row.attempts++;
+                    }
+                    if (row.attempts < MAX_ROW_ATTEMPTS) {
+                        failed.put(key, row);
+                        continue;
+                    }
+                    droppedCount++;
+                    System.err.printf("Dropping changes to %s %d after %d failed attempts: %s%n",
+                            key.table, key.id, row.attempts, row.columns);
+                    ex.printStackTrace();
+                }
+            }
+        }
+        return failed;
+    }
+    private void write(Connection connect, Map<RowKey, PendingRow> batch) throws SQLException {
+        // Statements are grouped by SQL so each runs as one JDBC batch, with every purge after every upsert
+        Map<String, List<Object[]>> upserts = new LinkedHashMap<>();
+        Map<String, List<Object[]>> purges = new LinkedHashMap<>();
+        for (Map.Entry<RowKey, PendingRow> entry : batch.entrySet()) {
+            RowKey key = entry.getKey();
+            PendingRow row = entry.getValue();
+            for (Map.Entry<String, Object> column : row.columns.entrySet()) {
+                String sql = dialect.upsert(key.table, column.getKey());
+                Object value = column.getValue();
+                upserts.computeIfAbsent(sql, k -> new ArrayList<>()).add(new Object[]{key.id, value, value});
+            }
+            if (row.purgeSql != null) {
+                purges.computeIfAbsent(row.purgeSql, k -> new ArrayList<>()).add(new Object[]{key.id});
+            }
+        }
+        connect.setAutoCommit(false);
+        try {
+            executeBatches(connect, upserts);
+            executeBatches(connect, purges);
+            connect.commit();
+        } catch (SQLException ex) {
+            connect.rollback();
+            throw ex;
+        }
+    }
+    private static void executeBatches(Connection connect, Map<String, List<Object[]>> batches) throws SQLException {
+        for (Map.Entry<String, List<Object[]>> entry : batches.entrySet()) {
+            try (PreparedStatement st = connect.prepareStatement(entry.getKey())) {
+                for (Object[] params : entry.getValue()) {
+                    for (int i = 0; i < params.length; i++) {
+                        bind(st, i + 1, params[i]);
+                    }
+                    st.addBatch();
+                }
+                st.executeBatch();
+            }
+        }
+    }
+    private static void bind(PreparedStatement st, int index, Object value) throws SQLException {
+        if (value instanceof Long) {
+            st.setLong(index, (Long) value);
+        } else if (value instanceof Boolean) {
+            st.setBoolean(index, (Boolean) value);
+        } else {
+            st.setString(index, (String) value);
+        }
+    }
+
+    /**
+     * @return The number of changed rows waiting to be written, not counting a batch being written
+     */
+    synchronized int getPendingCount() {
+        return pending.size();
+    }
+    /**
+     * @return The number of rows written, counting merged changes to a row once
+     */
+    long getWrittenCount() {
+        return writtenCount;
+    }
+    /**
+     * @return The number of batches written
+     */
+    long getBatchCount() {
+        return batchCount;
+    }
+    /**
+     * @return The number of times a batch failed and was retried
+     */
+    long getRetryCount() {
+        return retryCount;
+    }
+    /**
+     * @return The number of rows dropped after failing too many times
+     */
+    long getDroppedCount() {
+        return droppedCount;
+    }
+
+    private static final class RowKey {
+        private final String table;
+        private final long id;
+
+        private RowKey(String table, long id) {
+            this.table = table;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof RowKey)) {
+                return false;
+            }
+            RowKey other = (RowKey) o;
+            return id == other.id && table.equals(other.table);
+        }
+        @Override
+        public int hashCode() {
+            return 31 * table.hashCode() + Long.hashCode(id);
+        }
+    }
+
+    private static final class PendingRow {
+        // Latest value of each changed column
+        private final Map<String, Object> columns = new LinkedHashMap<>();
+        private @Nullable String purgeSql;
+        // The whole row once written, empty if it will be deleted
+        private Optional<?> row = Optional.empty();
+        // Failed attempts to write this row on its own
+        private int attempts;
+    }
+
+}
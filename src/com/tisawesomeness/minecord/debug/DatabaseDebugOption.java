@@ -0,0 +1,43 @@
+package com.tisawesomeness.minecord.debug;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.tisawesomeness.minecord.database.ConnectionPool;
+import com.tisawesomeness.minecord.database.Database;
+import lombok.NonNull;
+
+public class DatabaseDebugOption implements DebugOption {
+    public @NonNull String getName() {
+        return "database";
+    }
+    public @NonNull String debug(@NonNull String extra) {
+        ConnectionPool pool = Database.getPool();
+        if (pool == null) {
+            return "The database is not connected.";
+        }
+        long hits = pool.getStatementHitCount();
+        long total = hits + pool.getStatementMissCount();
+        double rate = total == 0 ? 100.0 : 100.0 * hits / total;
+        String poolInfo = String.format("Connections: `%d/%d` open, `%d` active, `%d` idle, `%d` waiting\n",
+                pool.getOpenCount(), pool.getMaxSize(), pool.getActiveCount(), pool.getIdleCount(), pool.getWaitingCount()) +
+                String.format("Borrows: `%d`, average wait: `%.2f ms`, timeouts: `%d`\n",
+                        pool.getBorrowCount(), pool.getAverageWaitMillis(), pool.getTimeoutCount()) +
+                String.format("Created: `%d`, evicted: `%d`, invalid: `%d`, leaks: `%d`\n",
+                        pool.getCreatedCount(), pool.getEvictedCount(), pool.getInvalidCount(), pool.getLeakCount()) +
+                String.format("Statement cache hits: `%d/%d %.2f%%`\n", hits, total, rate) +
+                String.format("Write queue: `%d` pending, `%d` rows written in `%d` batches, `%d` retries, `%d` dropped",
+                        Database.getPendingWriteCount(), Database.getWrittenCount(), Database.getWriteBatchCount(),
+                        Database.getWriteRetryCount(), Database.getDroppedWriteCount());
+        CacheStats guildStats = Database.getGuildCacheStats();
+        CacheStats userStats = Database.getUserCacheStats();
+        if (guildStats == null || userStats == null) {
+            return poolInfo;
+        }
+        return poolInfo + "\n" +
+                String.format("Guild settings cache hits: `%d/%d %.2f%%`\n",
+                        guildStats.hitCount(), guildStats.requestCount(), 100*guildStats.hitRate()) +
+                String.format("User settings cache hits: `%d/%d %.2f%%`\n",
+                        userStats.hitCount(), userStats.requestCount(), 100*userStats.hitRate()) +
+                String.format("Settings cache size: `%d`, evictions: `%d`",
+                        Database.getSettingsCacheSize(), guildStats.evictionCount() + userStats.evictionCount());
+    }
+}
@@ -1,5 +1,6 @@
 package com.tisawesomeness.minecord.debug;
 
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.tisawesomeness.minecord.mc.item.ItemRegistry;
 import lombok.NonNull;
 
@@ -12,6 +13,13 @@ public class ItemDebugOption implements DebugOption {
         int misses = ItemRegistry.getMisses();
         int total = hits + misses;
         double rate = total == 0 ? 100.0 : 100.0 * hits / total;
-        return String.format("Item search hit rate: `%d/%d %.2f%%`", hits, total, rate);
+        int fuzzyHits = ItemRegistry.getFuzzyHits();
+        int fuzzyTotal = fuzzyHits + ItemRegistry.getFuzzyMisses();
+        double fuzzyRate = fuzzyTotal == 0 ? 100.0 : 100.0 * fuzzyHits / fuzzyTotal;
+        CacheStats cacheStats = ItemRegistry.getSearchCacheStats();
+        return String.format("Item search hit rate: `%d/%d %.2f%%`\n", hits, total, rate) +
+                String.format("Suggestion hit rate: `%d/%d %.2f%%`\n", fuzzyHits, fuzzyTotal, fuzzyRate) +
+                String.format("Search cache hits: `%d/%d %.2f%%`\n", cacheStats.hitCount(), cacheStats.requestCount(), 100*cacheStats.hitRate()) +
+                String.format("Search cache size: `%d`, evictions: `%d`", ItemRegistry.getSearchCacheSize(), cacheStats.evictionCount());
     }
 }
@@ -1,5 +1,6 @@
 package com.tisawesomeness.minecord.interaction;
 
+import com.tisawesomeness.minecord.mc.Version;
 import com.tisawesomeness.minecord.mc.item.ItemRegistry;
 import com.tisawesomeness.minecord.mc.recipe.*;
 import com.tisawesomeness.minecord.util.MathUtils;
@@ -17,6 +18,7 @@ import net.dv8tion.jda.api.modals.Modal;
 import net.dv8tion.jda.api.utils.messages.MessageCreateBuilder;
 import net.dv8tion.jda.api.utils.messages.MessageCreateData;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.OptionalInt;
@@ -35,11 +37,19 @@ public class RecipeMenu implements UpdatingMessage {
     private static final String JUMP_MODAL_ID = "recipemenu.jump_modal";
     private static final String PAGE_SELECT_ID = "recipemenu.page_select";
 
+    private final @Nullable Version version;
     private List<Recipe> recipes;
     private int page;
     private int ingredientsPage;
 
-    public RecipeMenu(List<Recipe> recipes, int page) {
+    /**
+     * Creates a new recipe menu that only navigates to recipes in a version.
+     * @param recipes The recipes to page through, already sorted with {@link RecipeRegistry#compareRecipes}
+     * @param page The starting page
+     * @param version The version to filter to, or null for all versions
+     */
+    public RecipeMenu(List<Recipe> recipes, int page, @Nullable Version version) {
+        this.version = version;
         if (recipes.isEmpty()) {
             throw new IllegalArgumentException("Recipes cannot be empty");
         }
@@ -50,9 +60,8 @@ public class RecipeMenu implements UpdatingMessage {
     }
 
     private void setRecipes(List<Recipe> recipes) {
-        this.recipes = recipes.stream()
-                .sorted(RecipeRegistry::compareRecipes)
-                .collect(Collectors.toList());
+        // Recipe searches return lists in display order, so no sorting is needed
+        this.recipes = recipes;
         setPage(0);
     }
     private void setPage(int page) {
@@ -281,18 +290,18 @@ public class RecipeMenu implements UpdatingMessage {
                 .collect(Collectors.toList());
     }
 
-    private static List<Recipe> craftableFromIngredient(String ingredientMinecordId) {
+    private List<Recipe> craftableFromIngredient(String ingredientMinecordId) {
         String toSearch;
         if (!ingredientMinecordId.contains("potion") && !ingredientMinecordId.contains("tipped_arrow")) {
             toSearch = ItemRegistry.getNamespacedID(ingredientMinecordId);
         } else {
             toSearch = ingredientMinecordId;
         }
-        return RecipeRegistry.searchItemOutput(toSearch);
+        return RecipeRegistry.searchItemOutput(toSearch, version);
     }
 
     private List<Recipe> craftableFromOutput() {
-        return RecipeRegistry.searchIngredient(ItemRegistry.searchNoStats(currentRecipe().getResult().getItem()));
+        return RecipeRegistry.searchIngredient(ItemRegistry.searchNoStats(currentRecipe().getResult().getItem()), version);
     }
 
 }
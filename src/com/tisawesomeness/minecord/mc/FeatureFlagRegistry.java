@@ -1,28 +1,34 @@
 package com.tisawesomeness.minecord.mc;
 
-import com.tisawesomeness.minecord.util.RequestUtils;
-import org.json.JSONArray;
-import org.json.JSONObject;
+import com.tisawesomeness.minecord.util.DataNode;
+import com.tisawesomeness.minecord.util.DataSnapshot;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.*;
 
 public class FeatureFlagRegistry {
 
-    private static List<FeatureFlag> flags;
-
-    public static void init(String path) throws IOException {
-        parseFlags(RequestUtils.loadJSONArray(path + "/flags.json"));
+    /**
+     * Loads the feature flags from file, without publishing them
+     * @param path The path to read from
+     * @return All feature flags in release order
+     * @throws IOException when a file isn't found
+     * @see GameData#init(String, java.util.concurrent.Executor)
+     */
+    public static List<FeatureFlag> load(String path) throws IOException {
+        List<FeatureFlag> flags = parseFlags(DataSnapshot.load(path + "/flags.json"));
         System.out.println("Loaded " + flags.size() + " feature flags");
+        return flags;
     }
-    private static void parseFlags(JSONArray flagsArr) {
-        flags = new ArrayList<>();
-        for (int i = 0; i < flagsArr.length(); i++) {
-            JSONObject flagObj = flagsArr.getJSONObject(i);
+    private static List<FeatureFlag> parseFlags(DataNode flagsArr) {
+        List<FeatureFlag> flags = new ArrayList<>();
+        for (DataNode flagObj : flagsArr.members()) {
             flags.add(parseFlag(flagObj));
         }
+        return Collections.unmodifiableList(flags);
     }
-    private static FeatureFlag parseFlag(JSONObject flagObj) {
+    private static FeatureFlag parseFlag(DataNode flagObj) {
         String id = flagObj.getString("id");
         if (id.equals("vanilla")) {
             return null;
@@ -32,21 +38,27 @@ public class FeatureFlagRegistry {
             return new FeatureFlag(version);
         } else {
             String name = flagObj.optString("name", id);
-            Version release = Version.parse(flagObj.optString("release"));
+            Version release = Version.parse(flagObj.optString("release", ""));
             return new FeatureFlag(id, name, release);
         }
     }
 
-    public static final Comparator<FeatureFlag> RELEASE_ORDER_COMPARATOR = Comparator.comparingInt(f -> flags.indexOf(f));
+    public static final Comparator<FeatureFlag> RELEASE_ORDER_COMPARATOR = Comparator.comparingInt(f -> getFlags().indexOf(f));
 
     /**
      * @return all feature flags in release order, with `null` separating released and unreleased feature flags
      */
     public static List<FeatureFlag> getFlags() {
-        return Collections.unmodifiableList(flags);
+        return GameData.current().flags;
     }
 
-    public static Optional<FeatureFlag> get(String id) {
+    /**
+     * Finds a feature flag while parsing, before the flags are published
+     * @param flags The flags being loaded
+     * @param id The flag ID, may be null
+     * @return The flag, or empty if not found
+     */
+    public static Optional<FeatureFlag> get(List<FeatureFlag> flags, @Nullable String id) {
         return flags.stream()
                 .filter(Objects::nonNull)
                 .filter(f -> f.getId().equals(id))
@@ -0,0 +1,80 @@
+package com.tisawesomeness.minecord.mc;
+
+import com.tisawesomeness.minecord.mc.item.ItemRegistry;
+import com.tisawesomeness.minecord.mc.recipe.RecipeRegistry;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Everything loaded from the game data files: versions, feature flags, items, and recipes.
+ * <br>Every registry's data is loaded first and then published together in one swap,
+ * so a reload never leaves items from one load next to recipes or flags from another.
+ */
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class GameData {
+
+    // Replaced all at once on reload
+    private static volatile GameData current;
+
+    // List of latest minor versions: 1.7.10, 1.8.9, 1.9.4...
+    final List<Version> versions;
+    final List<FeatureFlag> flags;
+    @Getter private final ItemRegistry.Data items;
+    @Getter private final RecipeRegistry.Data recipes;
+
+    /**
+     * Loads every game data file and builds every index, then publishes all of it at once.
+     * If anything fails to load or build, the previous data is kept.
+     * @param path The path to read from
+     * @param executor The executor to load items on while recipes load on the calling thread
+     * @throws IOException when a file isn't found
+     */
+    public static void init(String path, Executor executor) throws IOException {
+        List<Version> versions = VersionRegistry.load(path);
+        // Items and recipes look up their feature flags while parsing
+        List<FeatureFlag> flags = FeatureFlagRegistry.load(path);
+        CompletableFuture<ItemRegistry.Data> items = CompletableFuture.supplyAsync(() -> {
+            try {
+                return ItemRegistry.load(path, flags);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }, executor);
+        RecipeRegistry.Data recipes = RecipeRegistry.load(path, flags);
+        ItemRegistry.Data itemData = join(items);
+        // A failed index fails the load instead of every command that uses it
+        join(CompletableFuture.allOf(itemData.indexed(), recipes.indexed()));
+        current = new GameData(versions, flags, itemData, recipes);
+    }
+    private static <T> T join(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * @return The data published by the last successful {@link #init(String, Executor)}
+     */
+    public static GameData current() {
+        return current;
+    }
+
+}
@@ -5,24 +5,30 @@ import org.json.JSONArray;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 public class VersionRegistry {
 
-    // List of latest minor versions: 1.7.10, 1.8.9, 1.9.4...
-    private static List<Version> latestMinorVersions;
-
-    public static void init(String path) throws IOException {
-        parseVersions(path);
-        if (latestMinorVersions.isEmpty()) {
+    /**
+     * Loads the list of latest minor versions (1.7.10, 1.8.9, 1.9.4...) from file, without publishing it
+     * @param path The path to read from
+     * @return The latest minor versions, oldest first
+     * @throws IOException when a file isn't found
+     * @see GameData#init(String, java.util.concurrent.Executor)
+     */
+    public static List<Version> load(String path) throws IOException {
+        List<Version> versions = parseVersions(path);
+        if (versions.isEmpty()) {
             System.out.println("No versions found in versions.json");
         }
-        System.out.println("Latest known version: " + latestMinorVersions.get(latestMinorVersions.size() - 1));
+        System.out.println("Latest known version: " + versions.get(versions.size() - 1));
+        return versions;
     }
 
-    private static void parseVersions(String path) throws IOException {
-        latestMinorVersions = new ArrayList<>();
+    private static List<Version> parseVersions(String path) throws IOException {
+        List<Version> latestMinorVersions = new ArrayList<>();
         JSONArray versions = RequestUtils.loadJSONArray(path + "/versions.json");
         for (int i = 0; i < versions.length(); i++) {
             Version version = Version.parse(versions.getString(i));
@@ -30,15 +36,32 @@ public class VersionRegistry {
                 latestMinorVersions.add(version);
             }
         }
+        return Collections.unmodifiableList(latestMinorVersions);
     }
 
     public static Optional<Version> getLatestVersion() {
+        List<Version> latestMinorVersions = GameData.current().versions;
         if (latestMinorVersions.isEmpty()) {
             return Optional.empty();
         }
         return Optional.of(latestMinorVersions.get(latestMinorVersions.size() - 1));
     }
 
+    /**
+     * Checks if a version is a known release, from 1.7.0 to the latest version.
+     * Ex: 1.16.5 is known, but 1.16.6 and 1.6.4 are not
+     * @param version the version to check
+     * @return whether there is a known minor version with the same major and minor version and at least the same patch
+     */
+    public static boolean isKnown(Version version) {
+        for (Version v : GameData.current().versions) {
+            if (v.getMajor() == version.getMajor() && v.getMinor() == version.getMinor()) {
+                return version.getPatch() <= v.getPatch();
+            }
+        }
+        return false;
+    }
+
     /**
      * Computes the previous Minecraft version of the given version.
      * Ex: 1.8.9 -> 1.8.8, 1.8.0 -> 1.7.10
@@ -49,6 +72,7 @@ public class VersionRegistry {
         if (version.getPatch() > 0) {
             return Optional.of(new Version(version.getMajor(), version.getMinor(), version.getPatch() - 1));
         } else {
+            List<Version> latestMinorVersions = GameData.current().versions;
             for (int i = latestMinorVersions.size() - 1; i >= 0; i--) {
                 Version v = latestMinorVersions.get(i);
                 if (v.compareTo(version) < 0) {
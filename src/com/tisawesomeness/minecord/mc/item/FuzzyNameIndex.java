@@ -0,0 +1,173 @@
+package com.tisawesomeness.minecord.mc.item;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An index of item search names bucketed by length, used to suggest items when a search has a typo.
+ * Distances use the optimal string alignment variant of Damerau-Levenshtein,
+ * so a swap of two adjacent letters counts as one edit.
+ * <br>Only names within the edit limit in length are compared, and each comparison only computes the diagonal band
+ * of the edit matrix and stops as soon as the limit is exceeded, so a miss stays cheap.
+ */
+public final class FuzzyNameIndex {
+
+    private static final int MAX_QUERY_LENGTH = 64;
+    private static final int MIN_QUERY_LENGTH = 3;
+
+    // Sorted by length, then priority
+    private final char[][] names;
+    private final String[] values;
+    private final int[] priorities;
+    // Names of length i are in [lengthStart[i], lengthStart[i + 1])
+    private final int[] lengthStart;
+
+    private FuzzyNameIndex(char[][] names, String[] values, int[] priorities, int[] lengthStart) {
+        this.names = names;
+        this.values = values;
+        this.priorities = priorities;
+        this.lengthStart = lengthStart;
+    }
+
+    /**
+     * Builds a new index.
+     * @param names The lowercase names, in priority order
+     * @param values The item key for each name
+     * @return The index
+     * @throws IllegalArgumentException if the lists have different sizes
+     */
+    public static FuzzyNameIndex build(List<String> names, List<String> values) {
+        if (names.size() != values.size()) {
+            throw new IllegalArgumentException("There must be one value per name");
+        }
+        int size = names.size();
+        Integer[] order = new Integer[size];
+        int maxLength = 0;
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+            maxLength = Math.max(maxLength, names.get(i).length());
+        }
+        // Stable sort keeps priority order within each length
+        Arrays.sort(order, (a, b) -> Integer.compare(names.get(a).length(), names.get(b).length()));
+
+        char[][] nameArr = new char[size][];
+        String[] valueArr = new String[size];
+        int[] priorities = new int[size];
+        int[] lengthStart = new int[maxLength + 2];
+        for (int i = 0; i < size; i++) {
+            int original = order[i];
+            nameArr[i] = names.get(original).toCharArray();
+            valueArr[i] = values.get(original);
+            priorities[i] = original;
+            lengthStart[nameArr[i].length + 1]++;
+        }
+        for (int i = 1; i < lengthStart.length; i++) {
+            lengthStart[i] += lengthStart[i - 1];
+        }
+        return new FuzzyNameIndex(nameArr, valueArr, priorities, lengthStart);
+    }
+
+    /**
+     * Finds the items with names closest to the query.
+     * Short queries allow one edit, longer queries allow two.
+     * @param query The lowercase query, with underscores and periods replaced with spaces
+     * @param limit The maximum number of items to return
+     * @return A list of distinct item keys, closest first, which may be empty
+     */
+    public List<String> suggest(String query, int limit) {
+        int length = query.length();
+        if (limit <= 0 || length < MIN_QUERY_LENGTH || length > MAX_QUERY_LENGTH) {
+            return Collections.emptyList();
+        }
+        int maxDist = length <= 5 ? 1 : 2;
+        char[] q = query.toCharArray();
+
+        // Matches at each distance, as indexes into the name arrays
+        List<List<Integer>> matches = new ArrayList<>(maxDist + 1);
+        for (int i = 0; i <= maxDist; i++) {
+            matches.add(new ArrayList<>());
+        }
+        int[][] rows = new int[3][length + 2];
+        int minLength = Math.max(0, length - maxDist);
+        int maxLength = Math.min(lengthStart.length - 2, length + maxDist);
+        for (int len = minLength; len <= maxLength; len++) {
+            for (int i = lengthStart[len]; i < lengthStart[len + 1]; i++) {
+                int dist = distance(q, names[i], maxDist, rows);
+                if (dist <= maxDist) {
+                    matches.get(dist).add(i);
+                }
+            }
+        }
+
+        List<String> results = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (List<Integer> nodes : matches) {
+            nodes.sort((a, b) -> Integer.compare(priorities[a], priorities[b]));
+            for (int i : nodes) {
+                if (seen.add(values[i])) {
+                    results.add(values[i]);
+                    if (results.size() == limit) {
+                        return results;
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Computes the optimal string alignment distance between two strings, giving up once it exceeds a limit.
+     * @param rows Three reusable rows with a length of at least {@code a.length + 2}
+     * @return The distance, or {@code maxDist + 1} if the distance is greater than {@code maxDist}
+     */
+    private static int distance(char[] a, char[] b, int maxDist, int[][] rows) {
+        int over = maxDist + 1;
+        int[] prev2 = rows[0];
+        int[] prev = rows[1];
+        int[] curr = rows[2];
+        int firstHi = Math.min(a.length, maxDist);
+        for (int i = 0; i <= firstHi; i++) {
+            prev[i] = i;
+        }
+        prev[firstHi + 1] = over;
+        for (int j = 1; j <= b.length; j++) {
+            // Only cells within maxDist of the diagonal can be in range
+            int lo = Math.max(1, j - maxDist);
+            int hi = Math.min(a.length, j + maxDist);
+            curr[lo - 1] = lo == 1 ? j : over;
+            char bc = b[j - 1];
+            int rowMin = curr[lo - 1];
+            for (int i = lo; i <= hi; i++) {
+                char ac = a[i - 1];
+                int cost = ac == bc ? 0 : 1;
+                int dist = Math.min(Math.min(curr[i - 1] + 1, prev[i] + 1), prev[i - 1] + cost);
+                if (i > 1 && j > 1 && ac == b[j - 2] && a[i - 2] == bc) {
+                    dist = Math.min(dist, prev2[i - 2] + 1);
+                }
+                curr[i] = dist;
+                rowMin = Math.min(rowMin, dist);
+            }
+            curr[hi + 1] = over;
+            if (rowMin > maxDist) {
+                return over;
+            }
+            int[] temp = prev2;
+            prev2 = prev;
+            prev = curr;
+            curr = temp;
+        }
+        return Math.min(prev[a.length], over);
+    }
+
+    /**
+     * @return The number of indexed names
+     */
+    public int size() {
+        return names.length;
+    }
+
+}
@@ -0,0 +1,176 @@
+package com.tisawesomeness.minecord.mc.item;
+
+import com.tisawesomeness.minecord.mc.FeatureFlag;
+import com.tisawesomeness.minecord.mc.FeatureFlagRegistry;
+import com.tisawesomeness.minecord.util.DataNode;
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Value;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An item parsed from the items.json format. All fields are resolved when the item is parsed,
+ * so no JSON is retained. Numerical fields are -1 if not present.
+ */
+@Value
+@Builder(access = AccessLevel.PRIVATE)
+public class Item {
+
+    /**
+     * The key of this item in items.json, such as {@code minecraft.white_wool} or {@code legacy.banner}
+     */
+    String key;
+    /**
+     * The namespaced ID, such as {@code minecraft:white_wool}
+     */
+    String namespacedID;
+
+    String displayName;
+    @Nullable String distinctDisplayName;
+    @Nullable String lore;
+    @Nullable String blockName;
+    @Nullable String previousBlockName;
+    @Nullable String previously;
+    @Nullable String previously2;
+    @Nullable String internalName;
+    List<String> searchNames;
+    /**
+     * The names of this item without a color, only present for colored items
+     */
+    List<String> uncolored;
+    boolean nameConflict;
+    boolean previousConflict;
+    boolean skipPrevious;
+
+    int id;
+    int data;
+    int blockID;
+    @Nullable String version;
+    /**
+     * The feature flag required to use this item, or null if the item is in vanilla
+     */
+    @Nullable FeatureFlag featureFlag;
+    /**
+     * The name of the image file used for this item, without the extension or URL
+     */
+    String imageKey;
+    @Nullable String actualID;
+    @Nullable String previousID;
+    @Nullable String previousID2;
+    @Nullable String previousBlockID;
+    boolean reference;
+    boolean conflict;
+
+    /**
+     * Creates a new item from the given key and JSON.
+     * @param key the key of this item in items.json
+     * @param item the JSON of a single item
+     * @param lang the language of the names to use
+     * @param flags the feature flags being loaded with this item
+     * @return the item
+     * @throws org.json.JSONException if a required field is missing
+     * @throws IllegalArgumentException if the item uses an unknown feature flag
+     */
+    public static Item parse(String key, DataNode item, String lang, List<FeatureFlag> flags) {
+        DataNode langObj = item.getObject("lang").getObject(lang);
+        DataNode properties = item.optObject("properties");
+        if (properties == null) {
+            properties = DataNode.emptyObject();
+        }
+
+        String displayName = langObj.getString("display_name").intern();
+        String actualID = optString(properties, "actual_id");
+        String featureFlagID = optString(properties, "feature_flag");
+        FeatureFlag featureFlag = null;
+        if (featureFlagID != null) {
+            featureFlag = FeatureFlagRegistry.get(flags, featureFlagID)
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown feature flag " + featureFlagID + " for " + key));
+        }
+        String imageKey = optString(properties, "image_key");
+
+        return builder()
+                .key(key)
+                .namespacedID(buildNamespacedID(key, actualID))
+                .displayName(displayName)
+                .distinctDisplayName(optString(langObj, "distinct_display_name"))
+                .lore(optString(langObj, "lore"))
+                .blockName(optString(langObj, "block_name"))
+                .previousBlockName(optString(langObj, "previous_block_name"))
+                .previously(optString(langObj, "previously"))
+                .previously2(optString(langObj, "previously2"))
+                .internalName(optString(langObj, "internal_name"))
+                .searchNames(optStringList(langObj, "search_names"))
+                .uncolored(optStringList(langObj, "uncolored"))
+                .nameConflict(langObj.has("name_conflict"))
+                .previousConflict(langObj.has("previous_conflict"))
+                .skipPrevious(langObj.has("skip_previous"))
+                .id(properties.optInt("id", -1))
+                .data(properties.optInt("data", -1))
+                .blockID(properties.optInt("block_id", -1))
+                .version(optString(properties, "version"))
+                .featureFlag(featureFlag)
+                .imageKey(imageKey == null ? displayName : imageKey)
+                .actualID(actualID)
+                .previousID(optString(properties, "previous_id"))
+                .previousID2(optString(properties, "previous_id2"))
+                .previousBlockID(optString(properties, "previous_block_id"))
+                .reference(properties.has("reference"))
+                .conflict(properties.has("conflict"))
+                .build();
+    }
+
+    private static String buildNamespacedID(String key, @Nullable String actualID) {
+        if (actualID != null) {
+            return actualID.replace(".", ":").intern();
+        } else if (key.startsWith("legacy.")) {
+            return key.replace("legacy.", "minecraft:").intern();
+        }
+        return key.replace(".", ":").intern();
+    }
+
+    // Strings are interned since many items share versions, names, and ids
+    private static @Nullable String optString(DataNode obj, String key) {
+        String str = obj.optString(key, null);
+        return str == null ? null : str.intern();
+    }
+    private static List<String> optStringList(DataNode obj, String key) {
+        DataNode arr = obj.optArray(key);
+        if (arr == null || arr.length() == 0) {
+            return Collections.emptyList();
+        }
+        List<String> list = new ArrayList<>(arr.length());
+        for (DataNode element : arr.members()) {
+            list.add(element.asString().intern());
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * @return whether this item has a numerical id
+     */
+    public boolean hasID() {
+        return id >= 0;
+    }
+    /**
+     * @return whether this item has a data value
+     */
+    public boolean hasData() {
+        return data >= 0;
+    }
+    /**
+     * @return the distinct display name if this item has one, otherwise the display name
+     */
+    public String getDistinctOrDisplayName() {
+        return distinctDisplayName == null ? displayName : distinctDisplayName;
+    }
+
+    @Override
+    public String toString() {
+        return key;
+    }
+
+}
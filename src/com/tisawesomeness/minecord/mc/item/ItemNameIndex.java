@@ -0,0 +1,290 @@
+package com.tisawesomeness.minecord.mc.item;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A prefix index over item search names, used to autocomplete item arguments.
+ * Every word of a name is indexed, so "ingot" suggests "Gold Ingot",
+ * but names that start with the query are ranked before names that only contain a word starting with the query.
+ * <br>Terms are kept in one sorted array and found with binary search.
+ */
+public final class ItemNameIndex {
+
+    private static final String NAMESPACE = "minecraft";
+    // Discord shows at most 25 autocomplete choices
+    private static final int PRECOMPUTED_LIMIT = 25;
+    private static final int UNSEEN = Integer.MAX_VALUE;
+
+    private final Item[] items;
+    // Parallel arrays sorted by term, then score
+    private final String[] terms;
+    private final int[] itemIndexes;
+    private final int[] scores;
+
+    // Results for the empty query and each one-character query
+    private final List<Item> emptyQueryResults;
+    private final Map<Character, List<Item>> oneCharResults;
+    // Reused between lookups on the same thread, so lookups only allocate the result list
+    private final ThreadLocal<Scratch> scratch;
+
+    private ItemNameIndex(Item[] items, String[] terms, int[] itemIndexes, int[] scores) {
+        this.items = items;
+        this.terms = terms;
+        this.itemIndexes = itemIndexes;
+        this.scores = scores;
+        scratch = ThreadLocal.withInitial(() -> new Scratch(items.length));
+        emptyQueryResults = select(0, terms.length, PRECOMPUTED_LIMIT);
+        // Terms are sorted, so terms starting with the same character are next to each other
+        Map<Character, List<Item>> oneChar = new HashMap<>();
+        int from = 0;
+        while (from < terms.length) {
+            char c = terms[from].charAt(0);
+            int to = from + 1;
+            while (to < terms.length && terms[to].charAt(0) == c) {
+                to++;
+            }
+            oneChar.put(c, select(from, to, PRECOMPUTED_LIMIT));
+            from = to;
+        }
+        oneCharResults = oneChar;
+    }
+
+    /**
+     * Builds a new index.
+     * @param items The items to index, in iteration order
+     * @param nameFunction A function returning the lowercase search names of an item
+     * @return The index
+     */
+    public static ItemNameIndex build(Item[] items, Function<Item, List<String>> nameFunction) {
+        // Only the best score for each term and item pair is kept
+        Map<String, Map<Integer, Integer>> bestScores = new HashMap<>();
+        for (int i = 0; i < items.length; i++) {
+            Item item = items[i];
+            for (String name : nameFunction.apply(item)) {
+                for (int start = 0; start < name.length(); start++) {
+                    if (start > 0 && name.charAt(start - 1) != ' ') {
+                        continue;
+                    }
+                    int score = score(item, name, start);
+                    bestScores.computeIfAbsent(name.substring(start), k -> new HashMap<>())
+                            .merge(i, score, Math::min);
+                }
+            }
+        }
+
+        List<Entry> entries = new ArrayList<>();
+        bestScores.forEach((term, scoresByItem) ->
+                scoresByItem.forEach((itemIndex, score) -> entries.add(new Entry(term.intern(), itemIndex, score))));
+        entries.sort(null);
+
+        String[] terms = new String[entries.size()];
+        int[] itemIndexes = new int[entries.size()];
+        int[] scores = new int[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            terms[i] = entry.term;
+            itemIndexes[i] = entry.itemIndex;
+            scores[i] = entry.score;
+        }
+        return new ItemNameIndex(items, terms, itemIndexes, scores);
+    }
+    // Lower is better: names starting with the query, then current items, then shorter names
+    private static int score(Item item, String name, int start) {
+        int wordPenalty = start == 0 ? 0 : 1;
+        int legacyPenalty = item.getKey().startsWith("legacy.") ? 1 : 0;
+        return wordPenalty << 24 | legacyPenalty << 16 | Math.min(name.length(), 0xFFFF);
+    }
+
+    /**
+     * Finds the best items with a name that starts with, or contains a word starting with, the query.
+     * Case, underscores, and a leading {@code minecraft:} are ignored.
+     * @param query The partial query
+     * @param limit The maximum number of items to return
+     * @return An unmodifiable list of distinct items from best to worst match, which may be empty
+     */
+    public List<Item> complete(String query, int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        int offset = skipNamespace(query);
+        int length = query.length() - offset;
+
+        // The shortest queries match the most terms, so their results are computed ahead of time
+        if (length <= 1 && limit <= PRECOMPUTED_LIMIT) {
+            List<Item> precomputed = length == 0 ? emptyQueryResults
+                    : oneCharResults.getOrDefault(normalize(query.charAt(offset)), Collections.emptyList());
+            return precomputed.size() <= limit ? precomputed : precomputed.subList(0, limit);
+        }
+
+        // Find the terms that start with the query
+        int from = lo(query, offset);
+        int to = from;
+        int hi = terms.length;
+        while (to < hi) {
+            int mid = (to + hi) >>> 1;
+            if (comparePrefix(terms[mid], query, offset) <= 0) {
+                to = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return select(from, to, limit);
+    }
+    // The first term that starts with the query, or that sorts after it
+    private int lo(String query, int offset) {
+        int lo = 0;
+        int hi = terms.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (comparePrefix(terms[mid], query, offset) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Finds the best items among a range of terms.
+     * Items are ranked by their best score, and ties go to the item whose best score comes first alphabetically.
+     */
+    private List<Item> select(int from, int to, int limit) {
+        Scratch s = scratch.get();
+        int[] bestScores = s.bestScores;
+        int[] bestTerms = s.bestTerms;
+        int[] found = s.found;
+        int foundCount = 0;
+        for (int i = from; i < to; i++) {
+            int itemIndex = itemIndexes[i];
+            int best = bestScores[itemIndex];
+            if (best == UNSEEN) {
+                found[foundCount++] = itemIndex;
+            }
+            if (scores[i] < best) {
+                bestScores[itemIndex] = scores[i];
+                bestTerms[itemIndex] = i;
+            }
+        }
+
+        // Keep the top items sorted, packing the score and term into one key
+        long[] top = s.top(limit);
+        int count = 0;
+        for (int i = 0; i < foundCount; i++) {
+            int itemIndex = found[i];
+            long key = (long) bestScores[itemIndex] << 32 | bestTerms[itemIndex];
+            bestScores[itemIndex] = UNSEEN;
+            if (count == limit) {
+                if (key >= top[count - 1]) {
+                    continue;
+                }
+                count--;
+            }
+            int pos = count;
+            while (pos > 0 && top[pos - 1] > key) {
+                top[pos] = top[pos - 1];
+                pos--;
+            }
+            top[pos] = key;
+            count++;
+        }
+
+        Item[] results = new Item[count];
+        for (int i = 0; i < count; i++) {
+            results[i] = items[itemIndexes[(int) top[i]]];
+        }
+        return Collections.unmodifiableList(Arrays.asList(results));
+    }
+
+    private static int skipNamespace(String query) {
+        int offset = 0;
+        while (offset < query.length() && query.charAt(offset) == ' ') {
+            offset++;
+        }
+        int end = offset + NAMESPACE.length();
+        if (query.regionMatches(true, offset, NAMESPACE, 0, NAMESPACE.length())
+                && end < query.length() && (query.charAt(end) == ':' || query.charAt(end) == '.')) {
+            return end + 1;
+        }
+        return offset;
+    }
+    /**
+     * Compares the start of a term to the query, without allocating a normalized copy of the query.
+     * @return 0 if the term starts with the query, otherwise the sign of comparing the term to the query
+     */
+    private static int comparePrefix(String term, String query, int offset) {
+        int length = query.length() - offset;
+        for (int i = 0; i < length; i++) {
+            if (i >= term.length()) {
+                return -1;
+            }
+            char tc = term.charAt(i);
+            char qc = normalize(query.charAt(offset + i));
+            if (tc != qc) {
+                return tc - qc;
+            }
+        }
+        return 0;
+    }
+    private static char normalize(char c) {
+        return c == '_' ? ' ' : Character.toLowerCase(c);
+    }
+    /**
+     * @return The number of indexed terms
+     */
+    public int size() {
+        return terms.length;
+    }
+
+    private static final class Scratch {
+        // Best score and the term with it for each item, or UNSEEN if the item was not found yet
+        private final int[] bestScores;
+        private final int[] bestTerms;
+        // Items found so far, in the order they were found
+        private final int[] found;
+        private long[] top = new long[PRECOMPUTED_LIMIT];
+
+        private Scratch(int itemCount) {
+            bestScores = new int[itemCount];
+            Arrays.fill(bestScores, UNSEEN);
+            bestTerms = new int[itemCount];
+            found = new int[itemCount];
+        }
+
+        private long[] top(int limit) {
+            if (top.length < limit) {
+                top = new long[limit];
+            }
+            return top;
+        }
+    }
+
+    private static final class Entry implements Comparable<Entry> {
+        private final String term;
+        private final int itemIndex;
+        private final int score;
+
+        private Entry(String term, int itemIndex, int score) {
+            this.term = term;
+            this.itemIndex = itemIndex;
+            this.score = score;
+        }
+
+        @Override
+        public int compareTo(Entry o) {
+            int termCompare = term.compareTo(o.term);
+            if (termCompare != 0) {
+                return termCompare;
+            }
+            int scoreCompare = Integer.compare(score, o.score);
+            return scoreCompare != 0 ? scoreCompare : Integer.compare(itemIndex, o.itemIndex);
+        }
+    }
+
+}
@@ -1,24 +1,37 @@
 package com.tisawesomeness.minecord.mc.item;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.tisawesomeness.minecord.Bot;
 import com.tisawesomeness.minecord.Config;
 import com.tisawesomeness.minecord.mc.FeatureFlag;
-import com.tisawesomeness.minecord.mc.FeatureFlagRegistry;
+import com.tisawesomeness.minecord.mc.GameData;
+import com.tisawesomeness.minecord.util.DataNode;
+import com.tisawesomeness.minecord.util.DataSnapshot;
 import com.tisawesomeness.minecord.util.RequestUtils;
+import com.tisawesomeness.minecord.util.type.IntObjectMap;
 import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.interactions.commands.Command;
+import net.dv8tion.jda.api.interactions.commands.build.OptionData;
 import net.dv8tion.jda.api.utils.MarkdownUtil;
-import org.json.JSONArray;
 import org.json.JSONObject;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.Objects;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
@@ -33,8 +46,9 @@ public class ItemRegistry {
             "minecraft.white_glazed_terracotta", "minecraft.white_concrete", "minecraft.white_concrete_powder",
             "minecraft.white_dye", "minecraft.white_candle", "minecraft.white_bundle", "minecraft.white_harness" };
 
-    private static JSONObject items;
-    private static JSONObject data;
+    // Numeric ids and data values are packed into 16 bits each
+    private static final int MAX_NUMERIC_ID = 0x7FFF;
+    private static final int NO_DATA = 0xFFFF;
 
     public static final String LANG = "en_US";
     public static final String help = "Items can be:\n" +
@@ -48,16 +62,69 @@ public class ItemRegistry {
 
     private static final AtomicInteger hits = new AtomicInteger();
     private static final AtomicInteger misses = new AtomicInteger();
+    private static final AtomicInteger fuzzyHits = new AtomicInteger();
+    private static final AtomicInteger fuzzyMisses = new AtomicInteger();
+    private static final int MAX_SUGGESTIONS = 3;
 
     /**
-     * Initializes the item database by reading from file
+     * Loads the item database from file, without publishing it
      * @param path The path to read from
+     * @param flags The feature flags being loaded with the items
+     * @return The items and their indexes
      * @throws IOException when a file isn't found
+     * @see GameData#init(String, java.util.concurrent.Executor)
      */
-    public static void init(String path) throws IOException {
-        items = RequestUtils.loadJSON(path + "/items.json");
-        System.out.println("Loaded " + items.length() + " items");
-        data = RequestUtils.loadJSON(path + "/data.json");
+    public static Data load(String path, List<FeatureFlag> flags) throws IOException {
+        Data d = new Data();
+        parseItems(d, DataSnapshot.load(path + "/items.json"), flags);
+        System.out.println("Loaded " + d.itemArray.length + " items");
+        d.colorData = parseColorData(RequestUtils.loadJSON(path + "/data.json"));
+        buildNumericIndex(d);
+        buildColoredIndex(d);
+        buildNameIndex(d);
+        // Built before publishing since autocomplete must answer without waiting
+        d.autocompleteIndex = ItemNameIndex.build(d.itemArray, ItemRegistry::getSearchNames);
+        // A new cache also drops results from before a reload
+        d.searchCache = buildSearchCache();
+        return d;
+    }
+    // Searches read it once so they never mix old and new data
+    private static Data current() {
+        return GameData.current().getItems();
+    }
+    private static Cache<String, Optional<String>> buildSearchCache() {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(Config.getItemSearchCacheSize());
+        if (Config.getRecordCacheStats()) {
+            builder.recordStats();
+        }
+        return builder.build();
+    }
+
+    private static void parseItems(Data d, DataNode itemsObj, List<FeatureFlag> flags) {
+        Item[] itemArray = new Item[itemsObj.length()];
+        Map<String, Item> items = new HashMap<>(itemsObj.length() * 2);
+        int i = 0;
+        for (DataNode itemObj : itemsObj.members()) {
+            Item item = Item.parse(itemObj.getKey(), itemObj, LANG, flags);
+            itemArray[i++] = item;
+            items.put(item.getKey(), item);
+        }
+        d.itemArray = itemArray;
+        d.items = items;
+    }
+
+    private static Map<String, Integer> parseColorData(JSONObject dataObj) {
+        JSONObject colorsObj = dataObj.getJSONObject(LANG);
+        Map<String, Integer> colorData = new HashMap<>(colorsObj.length() * 2);
+        for (String color : colorsObj.keySet()) {
+            int value = colorsObj.optInt(color, -1);
+            if (value >= colorNames.length) {
+                throw new IllegalArgumentException("Color " + color + " has an invalid data value: " + value);
+            }
+            colorData.put(color, value);
+        }
+        return colorData;
     }
 
     /**
@@ -66,46 +133,42 @@ public class ItemRegistry {
      * @return An EmbedBuilder containing properties of the item
      */
     public static EmbedBuilder display(String item, String prefix) {
-        // All objects guaranteed to be there (except properties)
-        JSONObject itemObj = items.getJSONObject(item);
-        JSONObject langObj = itemObj.getJSONObject("lang").getJSONObject(LANG);
-        JSONObject properties = itemObj.optJSONObject("properties");
+        Item itemObj = current().items.get(item);
         EmbedBuilder eb = new EmbedBuilder();
         StringBuilder sb = eb.getDescriptionBuilder();
 
         // ID, display name, lore
-        String displayName = langObj.getString("display_name");
-        eb.setTitle(displayName);
-        if (langObj.has("lore")) {
-            sb.append(String.format("*%s*\n", langObj.getString("lore")));
+        eb.setTitle(itemObj.getDisplayName());
+        if (itemObj.getLore() != null) {
+            sb.append(String.format("*%s*\n", itemObj.getLore()));
         }
         String legacyStr = item.startsWith("legacy.") ? " (before 1.13)" : "";
-        sb.append(String.format("**Namespaced ID:** `%s`%s\n", getNamespacedID(item), legacyStr));
+        sb.append(String.format("**Namespaced ID:** `%s`%s\n", itemObj.getNamespacedID(), legacyStr));
 
         // Numerical id and data
-        if (properties != null && properties.has("id")) {
-            sb.append(String.format("**Numerical ID:** `%d`", properties.getInt("id")));
-            if (properties.has("data")) {
-                sb.append(String.format(", **Data:** `%d`", properties.getInt("data")));
+        if (itemObj.hasID()) {
+            sb.append(String.format("**Numerical ID:** `%d`", itemObj.getId()));
+            if (itemObj.hasData()) {
+                sb.append(String.format(", **Data:** `%d`", itemObj.getData()));
             }
             sb.append("\n");
         }
 
         // Version
-        if (properties != null && properties.has("version")) {
-            if (properties.has("feature_flag")) {
-                FeatureFlag flag = FeatureFlagRegistry.get(properties.getString("feature_flag")).get();
-                sb.append(String.format("**Version:** %s (%s experiment)\n", properties.getString("version"), flag.getDisplayName()));
+        if (itemObj.getVersion() != null) {
+            FeatureFlag flag = itemObj.getFeatureFlag();
+            if (flag != null) {
+                sb.append(String.format("**Version:** %s (%s experiment)\n", itemObj.getVersion(), flag.getDisplayName()));
                 flag.getReleaseVersion().ifPresent(releaseVersion -> {
                     sb.append(String.format("**Released:** %s\n", releaseVersion));
                 });
             } else {
-                sb.append(String.format("**Version:** %s\n", properties.getString("version")));
+                sb.append(String.format("**Version:** %s\n", itemObj.getVersion()));
             }
         }
 
         // Previous name and id
-        String prevString = getPrevString(item);
+        String prevString = getPrevString(itemObj);
         if (prevString != null) {
             sb.append("**Previously:** ").append(prevString).append("\n");
         }
@@ -113,24 +176,24 @@ public class ItemRegistry {
         // Block form
         String blockForm = "\n**__Block Form:__**";
         boolean changed = false;
-        if (langObj.has("block_name")) {
-            blockForm += " " + langObj.getString("block_name");
+        if (itemObj.getBlockName() != null) {
+            blockForm += " " + itemObj.getBlockName();
             changed = true;
         }
-        if (properties != null && properties.has("block_id")) {
-            blockForm += String.format("\n**Block ID:** `%d`", properties.getInt("block_id"));
+        if (itemObj.getBlockID() >= 0) {
+            blockForm += String.format("\n**Block ID:** `%d`", itemObj.getBlockID());
             changed = true;
         }
         // Previous block form
         boolean changed2 = false;
         prevString = "\n**Previously:**";
-        if (properties != null && properties.has("previous_block_id")) {
-            prevString += String.format(" `%s`", properties.getString("previous_block_id").replace(".", ":"));
+        if (itemObj.getPreviousBlockID() != null) {
+            prevString += String.format(" `%s`", itemObj.getPreviousBlockID().replace(".", ":"));
             changed = true;
             changed2 = true;
         }
-        if (langObj.has("previous_block_name")) {
-            prevString += " " + langObj.getString("previous_block_name");
+        if (itemObj.getPreviousBlockName() != null) {
+            prevString += " " + itemObj.getPreviousBlockName();
             changed = true;
             changed2 = true;
         }
@@ -143,15 +206,15 @@ public class ItemRegistry {
         }
 
         // Reference old item
-        if (properties != null && properties.has("reference")) {
-            String previousID = properties.getString("previous_id").replace(".", ":");
+        if (itemObj.isReference()) {
+            String previousID = itemObj.getPreviousID().replace(".", ":");
             sb.append(String.format("\nTo see the item for 1.12 and below, use `%sitem %s`\n", prefix, previousID));
         }
 
         // Sprite
         try {
             URL url = new URL(Config.getItemImageHost());
-            String path = url.getPath() + getImageKey(item) + ".png";
+            String path = url.getPath() + itemObj.getImageKey() + ".png";
             URI uri = new URI(url.getProtocol(), url.getUserInfo(), url.getHost(), url.getPort(), path, url.getQuery(), url.getRef());
             eb.setThumbnail(uri.toASCIIString());
         } catch (URISyntaxException | MalformedURLException ex) {
@@ -162,21 +225,12 @@ public class ItemRegistry {
         sb.delete(sb.length() - 1, sb.length());
         return eb.setColor(Bot.color);
     }
-    private static String getPrevString(String item) {
-        JSONObject itemObj = items.getJSONObject(item);
-        JSONObject langObj = itemObj.getJSONObject("lang").getJSONObject(LANG);
-        JSONObject properties = itemObj.optJSONObject("properties");
-
-        String previously1 = langObj.optString("previously", null);
-        String previously2 = langObj.optString("previously2", null);
-        String previousID1 = properties == null ? null : properties.optString("previous_id", null);
-        String previousID2 = properties == null ? null : properties.optString("previous_id2", null);
-
-        String prev1 = formatPrevString(previously1, previousID1);
+    private static String getPrevString(Item item) {
+        String prev1 = formatPrevString(item.getPreviously(), item.getPreviousID());
         if (prev1 == null) {
             return null;
         }
-        String prev2 = formatPrevString(previously2, previousID2);
+        String prev2 = formatPrevString(item.getPreviously2(), item.getPreviousID2());
         if (prev2 != null) {
             return prev1 + ", " + prev2;
         } else {
@@ -192,8 +246,16 @@ public class ItemRegistry {
         }
     }
 
+    /**
+     * Searches the database for an item, using the cached result if the same query was searched recently.
+     * Queries are case-insensitive and treat underscores as spaces.
+     * @param str The query
+     * @return The name of the item or null otherwise
+     */
     public static String search(String str) {
-        String item = searchNoStats(str);
+        String query = normalizeQuery(str);
+        Data d = current();
+        String item = d.searchCache.get(query, k -> Optional.ofNullable(searchNoStats(d, k))).orElse(null);
         if (item == null) {
             misses.incrementAndGet();
         } else {
@@ -207,11 +269,17 @@ public class ItemRegistry {
      * @return The name of the item or null otherwise
      */
     public static String searchNoStats(String str) {
+        return searchNoStats(current(), str);
+    }
+    private static String searchNoStats(Data d, String str) {
         String toMatch = str.trim();
         if (toMatch.startsWith("minecraft")) {
-            return searchIDs(toMatch);
+            return searchIDs(d, toMatch);
+        } else if (toMatch.startsWith("legacy.") && d.items.containsKey(toMatch.replace(" ", "_"))) {
+            // Item keys are used as autocomplete values
+            return toMatch.replace(" ", "_");
         } else if (Character.isDigit(toMatch.charAt(0))) {
-            String search = searchNumerical(toMatch);
+            String search = searchNumerical(d, toMatch);
             if (search != null) {
                 return search;
             }
@@ -227,7 +295,52 @@ public class ItemRegistry {
         } else if (prepped.equalsIgnoreCase("tipped arrow")) {
             return "minecraft.tipped_arrow.effect.water";
         }
-        return searchGeneral(toMatch);
+        return searchGeneral(d, toMatch);
+    }
+
+    private static String normalizeQuery(String str) {
+        return str.trim().toLowerCase().replace('_', ' ');
+    }
+    /**
+     * Suggests items with a name close to a query that did not match any item
+     * @param str The query
+     * @return A list of up to 3 item keys, closest first, which may be empty
+     */
+    public static List<String> suggest(String str) {
+        return suggest(current(), str);
+    }
+    private static List<String> suggest(Data d, String str) {
+        String query = str.replace("_", " ").replace(".", " ").replace(":", " ").trim().toLowerCase();
+        if (query.startsWith("minecraft ")) {
+            query = query.substring("minecraft ".length()).trim();
+        }
+        List<String> suggestions = d.fuzzyIndex.join().suggest(query, MAX_SUGGESTIONS);
+        if (suggestions.isEmpty()) {
+            fuzzyMisses.incrementAndGet();
+        } else {
+            fuzzyHits.incrementAndGet();
+        }
+        return suggestions;
+    }
+    /**
+     * Creates the warning shown when an item search fails, suggesting similar items if possible
+     * @param str The query that failed
+     * @return The warning message
+     */
+    public static String getNotFoundMessage(String str) {
+        Data d = current();
+        List<String> suggestions = suggest(d, str);
+        if (suggestions.isEmpty()) {
+            return ":warning: That item does not exist! " + "\n" + "Did you spell it correctly?";
+        }
+        StringBuilder sb = new StringBuilder(":warning: That item does not exist!\nDid you mean ");
+        for (int i = 0; i < suggestions.size(); i++) {
+            if (i > 0) {
+                sb.append(i == suggestions.size() - 1 ? " or " : ", ");
+            }
+            sb.append(MarkdownUtil.bold(getMenuDisplayNameWithFeature(d, suggestions.get(i))));
+        }
+        return sb.append("?").toString();
     }
 
     /**
@@ -235,7 +348,7 @@ public class ItemRegistry {
      * @param str The string to search
      * @return The name of the item or null otherwise
      */
-    private static String searchIDs(String str) {
+    private static String searchIDs(Data d, String str) {
         // Clean up string
         String id = str.replace("minecraft ", "minecraft.").replace(":", ".").replace(" ", "_");
         // Banners special case
@@ -246,7 +359,7 @@ public class ItemRegistry {
             return "minecraft.white_wall_banner";
         }
         // Search
-        return items.has(id) ? id : null;
+        return d.items.containsKey(id) ? id : null;
     }
 
     /**
@@ -254,7 +367,7 @@ public class ItemRegistry {
      * @param str The string to search
      * @return The name of the item or null otherwise
      */
-    private static String searchNumerical(String str) {
+    private static String searchNumerical(Data d, String str) {
         // Convert to id:data format
         String toParse = str.replace(".", ":").replace("-", ":").replace(" : ", ":");
         String idStr;
@@ -263,7 +376,7 @@ public class ItemRegistry {
         if (toParse.contains(":")) {
             String[] split = toParse.split(":");
             idStr = split[0];
-            data = parseData(split[1]);
+            data = parseData(d, split[1]);
         } else {
             idStr = toParse;
         }
@@ -274,7 +387,15 @@ public class ItemRegistry {
         } catch (NumberFormatException ignored) {
             return null;
         }
-
+        return searchNumerical(d, id, data);
+    }
+    /**
+     * Searches the item database for a numerical id and data value
+     * @param id The numerical id
+     * @param data The data value, or -1 if none was given
+     * @return The name of the item or null otherwise
+     */
+    private static String searchNumerical(Data d, int id, int data) {
         // Banners special case
         if (id == 176 || id == 425) {
             if (data < 0) {
@@ -291,27 +412,43 @@ public class ItemRegistry {
             return "minecraft.flower_pot";
         }
 
-        // Look through every item
-        Iterator<String> iter = items.keys();
-        while (iter.hasNext()) {
-            String itemID = iter.next();
-            JSONObject itemObj = items.getJSONObject(itemID);
-            // Check if the ids match
-            if (itemObj.has("properties")) {
-                JSONObject properties = itemObj.getJSONObject("properties");
-                if (properties.optInt("id", -1) == id || properties.optInt("block_id", -1) == id) {
-                    // Check if data matches
-                    if (properties.has("data")) {
-                        if (properties.getInt("data") == data) {
-                            return itemID;
-                        }
-                    } else if (data <= 0) {
-                        return itemID;
-                    }
+        if (id > MAX_NUMERIC_ID || data >= NO_DATA) {
+            return null;
+        }
+        return d.numericIndex.get(packNumeric(id, data < 0 ? NO_DATA : data));
+    }
+
+    /**
+     * Builds the index of packed id and data values to item keys.
+     * Items match on both their id and block id. Items without a data value match a missing data value or data 0,
+     * but an item with an explicit data value of 0 takes priority if it comes first in iteration order.
+     */
+    private static void buildNumericIndex(Data d) {
+        IntObjectMap<String> index = new IntObjectMap<>();
+        for (Item item : d.itemArray) {
+            int data = item.getData();
+            if (data >= NO_DATA) {
+                throw new IllegalArgumentException("Data value of " + item + " is too large: " + data);
+            }
+            for (int id : new int[]{item.getId(), item.getBlockID()}) {
+                if (id < 0) {
+                    continue;
+                }
+                if (id > MAX_NUMERIC_ID) {
+                    throw new IllegalArgumentException("Numeric id of " + item + " is too large: " + id);
+                }
+                if (data >= 0) {
+                    index.putIfAbsent(packNumeric(id, data), item.getKey());
+                } else {
+                    index.putIfAbsent(packNumeric(id, NO_DATA), item.getKey());
+                    index.putIfAbsent(packNumeric(id, 0), item.getKey());
                 }
             }
         }
-        return null;
+        d.numericIndex = index;
+    }
+    private static int packNumeric(int id, int data) {
+        return id << 16 | data;
     }
 
     /**
@@ -319,7 +456,7 @@ public class ItemRegistry {
      * @param str The string to search
      * @return The name of the item or null otherwise
      */
-    private static String searchGeneral(String str) {
+    private static String searchGeneral(Data d, String str) {
 
         // Extract ID and data
         String toParse = str.replace("_", " ").replace(".", " ").replace(" : ", ":").toLowerCase();
@@ -328,18 +465,155 @@ public class ItemRegistry {
             String[] split = toParse.split(":");
             toParse = split[0];
             if (split.length > 1) {
-                data = parseData(split[1]);
+                data = parseData(d, split[1]);
                 if (data < 0) {
                     return null;
                 }
             }
         }
 
+        // Colored items and candle cakes special cases
+        String coloredQuery = normalizeColoredQuery(toParse);
+        if (data >= 0) {
+            String[] coloredByData = d.coloredDataIndex.get(coloredQuery);
+            if (coloredByData != null && data < coloredByData.length && coloredByData[data] != null) {
+                return coloredByData[data];
+            }
+        }
+        String coloredItem = d.coloredIndex.get(coloredQuery);
+        if (coloredItem != null) {
+            return coloredItem;
+        }
+
+        // Banners special case
+        String banner = d.items.get("legacy.banner").getDisplayName();
+        String standingBanner = d.items.get("legacy.standing_banner").getInternalName();
+        String wallBanner = d.items.get("legacy.wall_banner").getInternalName();
+        if (toParse.equalsIgnoreCase(banner) || toParse.equalsIgnoreCase(standingBanner)) {
+            if (data < 0) {
+                return "minecraft.white_banner";
+            }
+            return String.format("minecraft.%s_banner", colorNames[data]);
+        } else if (toParse.equalsIgnoreCase(wallBanner)) {
+            if (data < 0) {
+                return "minecraft.white_wall_banner";
+            }
+            return String.format("minecraft.%s_wall_banner", colorNames[data]);
+        }
+        // Banner patterns special case
+        String bannerPattern = d.items.get("minecraft.flower_banner_pattern").getDisplayName();
+        if (toParse.equalsIgnoreCase(bannerPattern)) {
+            return "minecraft.flower_banner_pattern";
+        }
+        // Music discs special case
+        String musicDisc13 = d.items.get("minecraft.music_disc_13").getDisplayName();
+        if (str.equalsIgnoreCase(musicDisc13)) {
+            return "minecraft.music_disc_13";
+        }
+
+        // Look up the name in the index
+        if (data < 0) {
+            return d.nameIndex.get(toParse);
+        }
+        String item = d.numericNameIndex.get(toParse);
+        return item == null ? null : searchNumerical(d, d.items.get(item).getId(), data);
+    }
+
+    /**
+     * Builds the tables of colored item and candle cake queries, so searches never need to check every colored item.
+     * Every color name in data.json is combined with every uncolored name, with or without a space between them,
+     * and every uncolored name is combined with every data value. Each combination is resolved with
+     * {@link #searchColored(Data, String, int)} so the tables always agree with it.
+     */
+    private static void buildColoredIndex(Data d) {
+        String[][] names = new String[coloredEdgeCases.length][];
+        for (int i = 0; i < coloredEdgeCases.length; i++) {
+            names[i] = d.items.get(coloredEdgeCases[i]).getUncolored().stream()
+                    .map(String::toLowerCase)
+                    .toArray(String[]::new);
+        }
+        d.uncoloredNames = names;
+
+        Set<String> colors = new LinkedHashSet<>();
+        for (String color : d.colorData.keySet()) {
+            colors.add(color.replace("_", " "));
+            colors.add(color.replace("_", "-"));
+        }
+        Map<String, String> index = new HashMap<>();
+        Map<String, String[]> dataIndex = new HashMap<>();
+        for (String[] nameArr : names) {
+            for (String name : nameArr) {
+                for (String color : colors) {
+                    addColoredQuery(d, index, color + " " + name);
+                    addColoredQuery(d, index, name + " " + color);
+                    addColoredQuery(d, index, color + name);
+                    addColoredQuery(d, index, name + color);
+                }
+                String[] byData = new String[colorNames.length];
+                for (int data = 0; data < byData.length; data++) {
+                    byData[data] = searchColored(d, name, data);
+                }
+                dataIndex.putIfAbsent(normalizeColoredQuery(name), byData);
+            }
+        }
+        for (String color : colors) {
+            addColoredQuery(d, index, color + " candle cake");
+            addColoredQuery(d, index, color + " cake candle");
+            addColoredQuery(d, index, "cake with " + color + " candle");
+        }
+        d.coloredIndex = index;
+        d.coloredDataIndex = dataIndex;
+    }
+    private static void addColoredQuery(Data d, Map<String, String> index, String query) {
+        String key = normalizeColoredQuery(query);
+        if (!index.containsKey(key)) {
+            String item = searchColored(d, query, -1);
+            if (item != null) {
+                index.put(key, item);
+            }
+        }
+    }
+    /**
+     * Normalizes a query for the colored tables, so {@code light-blue  wool} finds {@code light blue wool}
+     * @param toParse The lowercase query
+     * @return The query with hyphens as spaces, runs of spaces collapsed, and no leading or trailing spaces
+     */
+    private static String normalizeColoredQuery(String toParse) {
+        // Most queries are already normalized, so only copy when something changes
+        boolean normalized = toParse.isEmpty()
+                || toParse.charAt(0) != ' ' && toParse.charAt(toParse.length() - 1) != ' ';
+        for (int i = 0; normalized && i < toParse.length(); i++) {
+            char c = toParse.charAt(i);
+            normalized = c != '-' && (c != ' ' || toParse.charAt(i - 1) != ' ');
+        }
+        if (normalized) {
+            return toParse;
+        }
+        StringBuilder sb = new StringBuilder(toParse.length());
+        for (int i = 0; i < toParse.length(); i++) {
+            char c = toParse.charAt(i) == '-' ? ' ' : toParse.charAt(i);
+            if (c != ' ' || sb.length() > 0 && sb.charAt(sb.length() - 1) != ' ') {
+                sb.append(c);
+            }
+        }
+        int end = sb.length();
+        if (end > 0 && sb.charAt(end - 1) == ' ') {
+            sb.setLength(end - 1);
+        }
+        return sb.toString();
+    }
+    /**
+     * Searches for colored items and candle cakes by name and color
+     * @param toParse The lowercase query, without the data value
+     * @param data The data value, or -1 if none was given
+     * @return The name of the item or null otherwise
+     */
+    private static String searchColored(Data d, String toParse, int data) {
+
         // Colored items special case
-        for (String coloredItem : coloredEdgeCases) {
-            JSONArray coloredNames = items.getJSONObject(coloredItem).getJSONObject("lang").getJSONObject(LANG).getJSONArray("uncolored");
-            for (int i = 0; i < coloredNames.length(); i++) {
-                String coloredName = coloredNames.getString(i).toLowerCase();
+        for (int i = 0; i < coloredEdgeCases.length; i++) {
+            String coloredItem = coloredEdgeCases[i];
+            for (String coloredName : d.uncoloredNames[i]) {
                 if (toParse.equals(coloredName)) {
                     if (data == 0) {
                         return coloredItem;
@@ -348,7 +622,7 @@ public class ItemRegistry {
                     }
                 } else if (toParse.contains(coloredName)) {
                     String color = toParse.replace(coloredName, "").trim();
-                    int colorData = parseDataFromFile(color);
+                    int colorData = parseDataFromFile(d, color);
                     if (colorData == 0) {
                         return coloredItem;
                     } else if (colorData > 0) {
@@ -361,7 +635,7 @@ public class ItemRegistry {
         // Colored cake candles special case
         if (toParse.endsWith(" cake candle") || toParse.endsWith(" candle cake")) {
             String color = toParse.substring(0, toParse.length() - 12).trim();
-            int colorData = parseDataFromFile(color);
+            int colorData = parseDataFromFile(d, color);
             if (colorData == 0) {
                 return "minecraft.white_candle_cake";
             } else if (colorData > 0) {
@@ -370,7 +644,7 @@ public class ItemRegistry {
         }
         String color = CANDLE_CAKE_PATTERN.matcher(toParse).replaceFirst("$1");
         if (!color.equals(toParse)) {
-            int colorData = parseDataFromFile(color);
+            int colorData = parseDataFromFile(d, color);
             if (colorData == 0) {
                 return "minecraft.white_candle_cake";
             } else if (colorData > 0) {
@@ -378,108 +652,77 @@ public class ItemRegistry {
             }
         }
 
-        // Banners special case
-        String banner = items.getJSONObject("legacy.banner").getJSONObject("lang").getJSONObject(LANG).getString("display_name");
-        String standingBanner = items.getJSONObject("legacy.standing_banner").getJSONObject("lang").getJSONObject(LANG).getString("internal_name");
-        String wallBanner = items.getJSONObject("legacy.wall_banner").getJSONObject("lang").getJSONObject(LANG).getString("internal_name");
-        if (toParse.equalsIgnoreCase(banner) || toParse.equalsIgnoreCase(standingBanner)) {
-            if (data < 0) {
-                return "minecraft.white_banner";
-            }
-            return String.format("minecraft.%s_banner", colorNames[data]);
-        } else if (toParse.equalsIgnoreCase(wallBanner)) {
-            if (data < 0) {
-                return "minecraft.white_wall_banner";
-            }
-            return String.format("minecraft.%s_wall_banner", colorNames[data]);
-        }
-        // Banner patterns special case
-        String bannerPattern = items.getJSONObject("minecraft.flower_banner_pattern").getJSONObject("lang").getJSONObject(LANG).getString("display_name");
-        if (toParse.equalsIgnoreCase(bannerPattern)) {
-            return "minecraft.flower_banner_pattern";
-        }
-        // Music discs special case
-        String musicDisc13 = items.getJSONObject("minecraft.music_disc_13").getJSONObject("lang").getJSONObject(LANG).getString("display_name");
-        if (str.equalsIgnoreCase(musicDisc13)) {
-            return "minecraft.music_disc_13";
-        }
+        return null;
+    }
 
-        // Loop through every item
-        Iterator<String> iter = items.keys();
-        while (iter.hasNext()) {
-            String item = iter.next();
-            if (isMatch(item, toParse, -1)) {
-                if (data < 0) {
-                    return item;
+    /**
+     * Builds the indexes of search names to item keys, and starts building the fuzzy index over the same names
+     * in the background, since it is only needed once a search fails.
+     * If multiple items share a name, the first item in iteration order is used.
+     */
+    private static void buildNameIndex(Data d) {
+        Map<String, String> names = new HashMap<>();
+        Map<String, String> numericNames = new HashMap<>();
+        List<String> fuzzyNames = new ArrayList<>();
+        List<String> fuzzyValues = new ArrayList<>();
+        for (Item item : d.itemArray) {
+            for (String name : getSearchNames(item)) {
+                if (names.putIfAbsent(name, item.getKey()) == null) {
+                    fuzzyNames.add(name);
+                    fuzzyValues.add(item.getKey());
                 }
-                int id = getID(item);
-                if (id >= 0) {
-                    return searchNumerical(id + ":" + data);
+                if (item.hasID()) {
+                    numericNames.putIfAbsent(name, item.getKey());
                 }
             }
         }
-        return null;
+        d.nameIndex = names;
+        d.numericNameIndex = numericNames;
+        d.fuzzyIndex = CompletableFuture.supplyAsync(() -> FuzzyNameIndex.build(fuzzyNames, fuzzyValues));
     }
     /**
-     * Determines if a non-id, non-numerical search string matches an item
-     * @param item The item key to check
-     * @param id   The id to use
-     * @param data The data value to use
-     * @return Whether the item matched
+     * Finds all names a non-id, non-numerical search string can use to match an item
+     * @param item The item key
+     * @return A list of lowercase names that may contain duplicates
      */
-    private static boolean isMatch(String item, String id, int data) {
-        JSONObject itemObj = items.getJSONObject(item);
-        JSONObject langObj = itemObj.getJSONObject("lang").getJSONObject(LANG);
-        JSONObject properties = itemObj.optJSONObject("properties");
-        ArrayList<String> toCheck = new ArrayList<>();
-        // Data must match or not matter
-        if (data < 0 || (properties != null && properties.optInt("data", 0) == data)) {
-            // Display, block, and previous names (but don't match display name if another item has it)
-            if (!langObj.has("name_conflict")) {
-                toCheck.add(langObj.getString("display_name"));
-            }
-            if (langObj.has("distinct_display_name")) {
-                toCheck.add(langObj.getString("distinct_display_name"));
-            }
-            toCheck.add(langObj.optString("block_name"));
-            if (!langObj.has("previous_conflict") || langObj.has("skip_previous")) {
-                toCheck.add(langObj.optString("previously"));
-                toCheck.add(langObj.optString("previously2"));
-            }
-            // All the custom search names
-            if (langObj.has("search_names")) {
-                JSONArray names = langObj.getJSONArray("search_names");
-                for (int i = 0; i < names.length(); i++) {
-                    toCheck.add(names.getString(i));
-                }
-            }
-            // Actual, previous, and previous block namespaced ids
-            if (properties != null) {
-                if (properties.has("actual_id")) {
-                    toCheck.add(convertID(properties.getString("actual_id")));
-                } else {
-                    toCheck.add(convertID(item));
-                }
-                if (!properties.has("conflict")) {
-                    toCheck.add(convertID(properties.optString("previous_id")));
-                }
-                toCheck.add(convertID(properties.optString("previous_block_id")));
-
-            }
-            // Equals ignore case
-            toCheck.removeIf(Objects::isNull);
-            toCheck.replaceAll(String::toLowerCase);
-            return toCheck.contains(id);
+    private static List<String> getSearchNames(Item item) {
+        List<String> toCheck = new ArrayList<>();
+        // Display, block, and previous names (but don't match display name if another item has it)
+        if (!item.isNameConflict()) {
+            toCheck.add(item.getDisplayName());
+        }
+        if (item.getDistinctDisplayName() != null) {
+            toCheck.add(item.getDistinctDisplayName());
+        }
+        toCheck.add(item.getBlockName());
+        if (!item.isPreviousConflict() || item.isSkipPrevious()) {
+            toCheck.add(item.getPreviously());
+            toCheck.add(item.getPreviously2());
+        }
+        // All the custom search names
+        toCheck.addAll(item.getSearchNames());
+        // Actual, previous, and previous block namespaced ids
+        if (item.getActualID() != null) {
+            toCheck.add(convertID(item.getActualID()));
+        } else {
+            toCheck.add(convertID(item.getKey()));
+        }
+        if (!item.isConflict()) {
+            toCheck.add(convertID(item.getPreviousID()));
         }
-        return false;
+        toCheck.add(convertID(item.getPreviousBlockID()));
+        // Equals ignore case
+        toCheck.removeIf(name -> name == null || name.isEmpty());
+        toCheck.replaceAll(String::toLowerCase);
+        return toCheck;
     }
     /**
      * Converts a string id to name searching format, with minecraft. removed and underscores replaced with spaces
      * @param id The id to convert
-     * @return The converted id, or a blank string if a blank string is provided
+     * @return The converted id, or null if null is provided
      */
     private static String convertID(String id) {
-        return id.isEmpty() ? "" : id.replace("minecraft.", "").replace("legacy.", "").replace("_", " ");
+        return id == null ? null : id.replace("minecraft.", "").replace("legacy.", "").replace("_", " ");
     }
 
     /**
@@ -487,11 +730,11 @@ public class ItemRegistry {
      * @param data The string to parse
      * @return An integer data value from 0-69 or -1 otherwise
      */
-    private static int parseData(String data) {
+    private static int parseData(Data d, String data) {
         try {
             return Integer.parseInt(data);
         } catch (NumberFormatException ignored) {
-            return parseDataFromFile(data);
+            return parseDataFromFile(d, data);
         }
     }
     /**
@@ -499,32 +742,46 @@ public class ItemRegistry {
      * @param color The string to look up
      * @return An integer from 0-15 representing the data value, or -1 if not found
      */
-    private static int parseDataFromFile(String color) {
-        return data.getJSONObject(LANG).optInt(color.toLowerCase().replace(" ", "_").replace("-", "_"), -1);
+    private static int parseDataFromFile(Data d, String color) {
+        return d.colorData.getOrDefault(color.toLowerCase().replace(" ", "_").replace("-", "_"), -1);
     }
 
-    public static String getMenuDisplayNameWithFeature(String item) {
-        String displayName = getDistinctDisplayName(item);
-        JSONObject properties = items.getJSONObject(item).optJSONObject("properties");
-        if (properties != null) {
-            String feature = properties.optString("feature_flag", "vanilla");
-            Optional<FeatureFlag> flagOpt = FeatureFlagRegistry.get(feature);
-            if (flagOpt.isPresent()) {
-                FeatureFlag flag = flagOpt.get();
-                if (!flag.isReleased()) {
-                    displayName += " (" + flag.getDisplayName() + ")";
-                }
+    /**
+     * Suggests items for a partially typed item argument
+     * @param query The partial query, which may be empty
+     * @return Up to {@link OptionData#MAX_CHOICES} choices with the item key as the value
+     */
+    public static List<Command.Choice> autoComplete(String query) {
+        Data d = current();
+        List<Item> matches = d.autocompleteIndex.complete(query, OptionData.MAX_CHOICES);
+        if (matches.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Command.Choice> choices = new ArrayList<>(matches.size());
+        for (Item item : matches) {
+            String name = getMenuDisplayNameWithFeature(d, item.getKey());
+            if (name.length() > OptionData.MAX_CHOICE_NAME_LENGTH) {
+                name = name.substring(0, OptionData.MAX_CHOICE_NAME_LENGTH);
             }
+            choices.add(new Command.Choice(name, item.getKey()));
+        }
+        return choices;
+    }
+
+    public static String getMenuDisplayNameWithFeature(String item) {
+        return getMenuDisplayNameWithFeature(current(), item);
+    }
+    private static String getMenuDisplayNameWithFeature(Data d, String item) {
+        Item itemObj = d.items.get(item);
+        String displayName = itemObj.getDistinctOrDisplayName();
+        FeatureFlag flag = itemObj.getFeatureFlag();
+        if (flag != null && !flag.isReleased()) {
+            displayName += " (" + flag.getDisplayName() + ")";
         }
         return displayName;
     }
     public static String getDistinctDisplayName(String item) {
-        JSONObject langObj = items.getJSONObject(item).getJSONObject("lang").getJSONObject(LANG);
-        String distinctDisplayName = langObj.optString("distinct_display_name", null);
-        if (distinctDisplayName != null) {
-            return distinctDisplayName;
-        }
-        return langObj.getString("display_name");
+        return current().items.get(item).getDistinctOrDisplayName();
     }
 
     /**
@@ -532,40 +789,25 @@ public class ItemRegistry {
      * @param item The item key
      */
     public static String getNamespacedID(String item) {
-        JSONObject properties = items.getJSONObject(item).optJSONObject("properties");
-        if (item.startsWith("legacy.")) {
-            if (properties != null && properties.has("actual_id")) {
-                return properties.getString("actual_id").replace(".", ":");
-            } else {
-                return item.replace("legacy.", "minecraft:");
-            }
-        } else if (properties != null && properties.has("actual_id")) {
-            return properties.getString("actual_id").replace(".", ":");
-        }
-        return item.replace(".", ":");
+        return current().items.get(item).getNamespacedID();
     }
 
     /**
-     * Returns the numerical id of an item
+     * Gets the name of the image file used for an item
      * @param item The item key
-     * @return The numerical id, or -1 if there is no id
+     * @return The image filename, without the extension or URL
      */
-    private static int getID(String item) {
-        JSONObject properties = items.getJSONObject(item).optJSONObject("properties");
-        return properties == null ? -1 : properties.optInt("id", -1);
+    public static String getImageKey(String item) {
+        return current().items.get(item).getImageKey();
     }
 
     /**
-     * Gets the name of the image file used for an item
+     * Gets a parsed item
      * @param item The item key
-     * @return The image filename, without the extension or URL
+     * @return The item, or null if not found
      */
-    public static String getImageKey(String item) {
-        JSONObject properties = items.getJSONObject(item).optJSONObject("properties");
-        if (properties != null && properties.has("image_key")) {
-            return properties.getString("image_key");
-        }
-        return items.getJSONObject(item).getJSONObject("lang").getJSONObject("en_US").getString("display_name");
+    public static @Nullable Item get(String item) {
+        return current().items.get(item);
     }
 
     /**
@@ -580,5 +822,64 @@ public class ItemRegistry {
     public static int getMisses() {
         return misses.get();
     }
+    /**
+     * @return The stats of the search cache, which are only recorded if enabled in the config
+     */
+    public static CacheStats getSearchCacheStats() {
+        return current().searchCache.stats();
+    }
+    /**
+     * @return The approximate number of queries in the search cache
+     */
+    public static long getSearchCacheSize() {
+        return current().searchCache.estimatedSize();
+    }
+    /**
+     * @return The number of times a failed item search had a suggestion
+     */
+    public static int getFuzzyHits() {
+        return fuzzyHits.get();
+    }
+    /**
+     * @return The number of times a failed item search had no suggestion
+     */
+    public static int getFuzzyMisses() {
+        return fuzzyMisses.get();
+    }
+
+    /**
+     * Everything loaded from the item files. Filled in by {@link #load(String, List)} before it is published,
+     * and never modified after. Indexes in futures are built in the background, and
+     * {@link GameData#init(String, java.util.concurrent.Executor)} waits for them before publishing.
+     */
+    public static final class Data {
+        private Item[] itemArray;
+        private Map<String, Item> items;
+        private Map<String, Integer> colorData;
+        // Lowercase uncolored names of each colored edge case, in the same order
+        private String[][] uncoloredNames;
+        // Normalized colored item and candle cake queries to item keys
+        private Map<String, String> coloredIndex;
+        // Normalized uncolored names to item keys, indexed by data value
+        private Map<String, String[]> coloredDataIndex;
+        private IntObjectMap<String> numericIndex;
+        private Map<String, String> nameIndex;
+        private Map<String, String> numericNameIndex;
+        private ItemNameIndex autocompleteIndex;
+        // Built in the background
+        private CompletableFuture<FuzzyNameIndex> fuzzyIndex;
+        // Normalized query to item key, or empty if the query has no match
+        private Cache<String, Optional<String>> searchCache;
+
+        private Data() {}
+
+        /**
+         * @return A future that completes once every background index is built, or completes exceptionally
+         * if any of them failed
+         */
+        public CompletableFuture<Void> indexed() {
+            return CompletableFuture.allOf(fuzzyIndex);
+        }
+    }
 
 }
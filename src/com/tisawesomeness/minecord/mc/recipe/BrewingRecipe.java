@@ -1,25 +1,37 @@
 package com.tisawesomeness.minecord.mc.recipe;
 
-import org.apache.commons.collections4.ListUtils;
-import org.json.JSONObject;
+import com.tisawesomeness.minecord.mc.FeatureFlag;
+import com.tisawesomeness.minecord.util.DataNode;
 
+import java.util.Arrays;
 import java.util.List;
 
 public class BrewingRecipe extends Recipe {
 
-    protected BrewingRecipe(String key, JSONObject recipe) {
-        super(key, recipe);
+    private final List<Ingredient> reagent;
+    private final List<Ingredient> base;
+    private final List<Ingredient> ingredients;
+
+    protected BrewingRecipe(String key, DataNode recipe, List<FeatureFlag> flags) {
+        super(key, recipe, flags);
+        reagent = parseIngredients(recipe.get("reagent"));
+        base = parseIngredients(recipe.get("base"));
+        ingredients = join(reagent, base);
     }
 
     @Override
     public List<Ingredient> getIngredients() {
-        return ListUtils.union(getReagent(), getBase());
+        return ingredients;
+    }
+    @Override
+    public List<List<Ingredient>> getSlots() {
+        return Arrays.asList(reagent, base);
     }
     public List<Ingredient> getReagent() {
-        return parseIngredients(recipe.get("reagent"));
+        return reagent;
     }
     public List<Ingredient> getBase() {
-        return parseIngredients(recipe.get("base"));
+        return base;
     }
 
     @Override
@@ -0,0 +1,57 @@
+package com.tisawesomeness.minecord.mc.recipe;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The full expansion of crafting an amount of an item down to raw materials.
+ */
+@Value
+public class CraftPlan {
+    /**
+     * The namespaced ID of the item to craft
+     */
+    String item;
+    /**
+     * The number of items requested
+     */
+    long amount;
+    /**
+     * Every craft needed, ordered so each step's ingredients are made in earlier steps
+     */
+    List<Step> steps;
+    /**
+     * Namespaced IDs of raw materials to the amount needed, in the order they are first used
+     */
+    Map<String, Long> rawMaterials;
+    /**
+     * Namespaced IDs of crafted items to the amount left over after every step, in step order
+     */
+    Map<String, Long> leftovers;
+
+    /**
+     * @return whether the item can be crafted at all, false if the item is a raw material
+     */
+    public boolean isCraftable() {
+        return !steps.isEmpty();
+    }
+
+    @Value
+    public static class Step {
+        /**
+         * The namespaced ID of the crafted item
+         */
+        String item;
+        Recipe recipe;
+        /**
+         * The number of times the recipe is crafted
+         */
+        long crafts;
+        /**
+         * The number of items made, including leftovers
+         */
+        long produced;
+    }
+}
@@ -0,0 +1,363 @@
+package com.tisawesomeness.minecord.mc.recipe;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * A graph of the preferred recipe for every craftable item, used to expand a crafting request into raw materials.
+ * <br>Each item uses the first of its recipes in display order, skipping any recipe that needs more of the same
+ * ingredients per item made than another recipe, so stairs are made with a stonecutter instead of a crafting table.
+ * Only current, released crafting, stonecutting, and smithing transform recipes are used.
+ * Tags and ingredient choices use the first item listed. Smelted items such as ingots and glass are raw materials,
+ * and recipes that unpack a storage block back into its items are never used.
+ * <br>Any remaining cycles are broken while the graph is built, so the graph is acyclic and the order
+ * each item expands in is computed once. Expanding a request is then a single pass over that order.
+ */
+public final class CraftTree {
+
+    private static final int UNVISITED = 0;
+    private static final int VISITING = 1;
+    private static final int DONE = 2;
+
+    // Parallel arrays indexed by item ID
+    private final String[] items;
+    private final Recipe[] recipes; // null for raw materials
+    private final int[] resultCounts;
+    private final int[][] ingredientIDs;
+    private final int[][] ingredientCounts;
+    // Every item reachable from each item, parents before children
+    private final int[][] orders;
+    private final Map<String, Integer> itemIDs;
+
+    private CraftTree(String[] items, Recipe[] recipes, int[] resultCounts, int[][] ingredientIDs,
+                      int[][] ingredientCounts, int[][] orders, Map<String, Integer> itemIDs) {
+        this.items = items;
+        this.recipes = recipes;
+        this.resultCounts = resultCounts;
+        this.ingredientIDs = ingredientIDs;
+        this.ingredientCounts = ingredientCounts;
+        this.orders = orders;
+        this.itemIDs = itemIDs;
+    }
+
+    /**
+     * Builds a new craft tree.
+     * @param recipes All recipes, in display order
+     * @param tagResolver A function returning the namespaced IDs of the items in a tag
+     * @return The craft tree
+     */
+    public static CraftTree build(Collection<Recipe> recipes, Function<String, List<String>> tagResolver) {
+        return new Builder(tagResolver).build(recipes);
+    }
+
+    /**
+     * Expands a crafting request into raw materials.
+     * @param item The namespaced ID of the item to craft
+     * @param amount The number of items to craft
+     * @return The plan, with no steps if the item cannot be crafted
+     * @throws IllegalArgumentException if the amount is not positive
+     * @throws ArithmeticException if an amount overflows
+     */
+    public CraftPlan plan(String item, long amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("amount must be positive but was " + amount);
+        }
+        Integer root = itemIDs.get(item);
+        if (root == null) {
+            return new CraftPlan(item, amount, Collections.emptyList(),
+                    Collections.singletonMap(item, amount), Collections.emptyMap());
+        }
+        int[] order = orders[root];
+        long[] needed = new long[items.length];
+        needed[root] = amount;
+
+        List<CraftPlan.Step> steps = new ArrayList<>();
+        Map<String, Long> rawMaterials = new LinkedHashMap<>();
+        Map<String, Long> leftovers = new LinkedHashMap<>();
+        for (int id : order) {
+            long need = needed[id];
+            Recipe recipe = recipes[id];
+            if (recipe == null) {
+                rawMaterials.put(items[id], need);
+                continue;
+            }
+            long crafts = (need + resultCounts[id] - 1) / resultCounts[id];
+            long produced = Math.multiplyExact(crafts, resultCounts[id]);
+            steps.add(new CraftPlan.Step(items[id], recipe, crafts, produced));
+            if (produced > need) {
+                leftovers.put(items[id], produced - need);
+            }
+            int[] ingredients = ingredientIDs[id];
+            int[] counts = ingredientCounts[id];
+            for (int i = 0; i < ingredients.length; i++) {
+                needed[ingredients[i]] = Math.addExact(needed[ingredients[i]], Math.multiplyExact(crafts, counts[i]));
+            }
+        }
+        // Steps were found from the result down, craft from the raw materials up
+        Collections.reverse(steps);
+        Map<String, Long> stepOrderLeftovers = new LinkedHashMap<>();
+        for (CraftPlan.Step step : steps) {
+            Long leftover = leftovers.get(step.getItem());
+            if (leftover != null) {
+                stepOrderLeftovers.put(step.getItem(), leftover);
+            }
+        }
+        return new CraftPlan(item, amount, Collections.unmodifiableList(steps),
+                Collections.unmodifiableMap(rawMaterials), Collections.unmodifiableMap(stepOrderLeftovers));
+    }
+
+    /**
+     * @return The preferred recipe for an item, or null if the item is a raw material
+     */
+    public Recipe getPreferredRecipe(String item) {
+        Integer id = itemIDs.get(item);
+        return id == null ? null : recipes[id];
+    }
+
+    /**
+     * @return The number of items in the tree, including raw materials
+     */
+    public int size() {
+        return items.length;
+    }
+
+    private static final class Builder {
+        private final Function<String, List<String>> tagResolver;
+        private final List<String> items = new ArrayList<>();
+        private final Map<String, Integer> itemIDs = new HashMap<>();
+        // Candidate recipes for each item ID, best first
+        private final Map<Integer, List<Candidate>> candidates = new HashMap<>();
+        private final Set<String> smelted = new HashSet<>();
+
+        private int[] states;
+        private Candidate[] chosen;
+
+        private Builder(Function<String, List<String>> tagResolver) {
+            this.tagResolver = tagResolver;
+        }
+
+        private CraftTree build(Collection<Recipe> recipes) {
+            Map<String, List<Candidate>> byResult = new LinkedHashMap<>();
+            for (Recipe recipe : recipes) {
+                if (recipe.getRemovedVersion() != null || !recipe.isReleased()) {
+                    continue;
+                }
+                String result = recipe.getResult().getItem();
+                if (recipe instanceof SmeltingRecipe) {
+                    if (((SmeltingRecipe) recipe).getType() == SmeltingRecipe.Type.SMELTING) {
+                        smelted.add(result);
+                    }
+                    continue;
+                }
+                if (!isUsed(recipe)) {
+                    continue;
+                }
+                Map<String, Integer> ingredients = countIngredients(recipe.getSlots());
+                if (ingredients == null || ingredients.containsKey(result)) {
+                    continue;
+                }
+                byResult.computeIfAbsent(result, k -> new ArrayList<>()).add(new Candidate(recipe, ingredients));
+            }
+
+            for (Map.Entry<String, List<Candidate>> entry : byResult.entrySet()) {
+                String result = entry.getKey();
+                if (smelted.contains(result)) {
+                    id(result);
+                    continue;
+                }
+                List<Candidate> list = new ArrayList<>();
+                for (Candidate candidate : entry.getValue()) {
+                    if (!isUnpacking(result, candidate, byResult) && !isDominated(candidate, entry.getValue())) {
+                        list.add(candidate);
+                    }
+                }
+                list.sort(null);
+                candidates.put(id(result), list);
+                for (Candidate candidate : list) {
+                    candidate.ingredients.keySet().forEach(this::id);
+                }
+            }
+
+            int size = items.size();
+            states = new int[size];
+            chosen = new Candidate[size];
+            for (int id = 0; id < size; id++) {
+                resolve(id);
+            }
+
+            Recipe[] recipeArr = new Recipe[size];
+            int[] resultCounts = new int[size];
+            int[][] ingredientIDs = new int[size][];
+            int[][] ingredientCounts = new int[size][];
+            for (int id = 0; id < size; id++) {
+                Candidate candidate = chosen[id];
+                if (candidate == null) {
+                    ingredientIDs[id] = new int[0];
+                    ingredientCounts[id] = new int[0];
+                    continue;
+                }
+                recipeArr[id] = candidate.recipe;
+                resultCounts[id] = candidate.recipe.getResult().getCount();
+                ingredientIDs[id] = new int[candidate.ingredients.size()];
+                ingredientCounts[id] = new int[candidate.ingredients.size()];
+                int i = 0;
+                for (Map.Entry<String, Integer> ingredient : candidate.ingredients.entrySet()) {
+                    ingredientIDs[id][i] = itemIDs.get(ingredient.getKey());
+                    ingredientCounts[id][i] = ingredient.getValue();
+                    i++;
+                }
+            }
+
+            int[][] orders = new int[size][];
+            for (int id = 0; id < size; id++) {
+                orders[id] = topologicalOrder(id, ingredientIDs);
+            }
+            return new CraftTree(items.toArray(new String[0]), recipeArr, resultCounts, ingredientIDs,
+                    ingredientCounts, orders, Collections.unmodifiableMap(itemIDs));
+        }
+
+        private int id(String item) {
+            Integer id = itemIDs.get(item);
+            if (id == null) {
+                id = items.size();
+                items.add(item);
+                itemIDs.put(item, id);
+            }
+            return id;
+        }
+
+        /**
+         * Chooses the first candidate whose ingredients can all be made without needing the item itself.
+         * An item that has no such candidate is a raw material.
+         */
+        private void resolve(int id) {
+            if (states[id] != UNVISITED) {
+                return;
+            }
+            states[id] = VISITING;
+            for (Candidate candidate : candidates.getOrDefault(id, Collections.emptyList())) {
+                if (isAcyclic(candidate)) {
+                    chosen[id] = candidate;
+                    break;
+                }
+            }
+            states[id] = DONE;
+        }
+        private boolean isAcyclic(Candidate candidate) {
+            for (String ingredient : candidate.ingredients.keySet()) {
+                int ingredientID = itemIDs.get(ingredient);
+                if (states[ingredientID] == VISITING) {
+                    return false;
+                }
+                resolve(ingredientID);
+            }
+            return true;
+        }
+
+        /**
+         * Whether a recipe turns one item into several of the result, while another recipe turns the result back
+         * into that item, such as a block of iron into iron ingots.
+         */
+        private static boolean isUnpacking(String result, Candidate candidate, Map<String, List<Candidate>> byResult) {
+            if (candidate.ingredients.size() != 1 || candidate.recipe.getResult().getCount() <= 1) {
+                return false;
+            }
+            String ingredient = candidate.ingredients.keySet().iterator().next();
+            for (Candidate reverse : byResult.getOrDefault(ingredient, Collections.emptyList())) {
+                if (reverse.ingredients.size() == 1 && reverse.ingredients.containsKey(result)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Whether another recipe uses the same ingredients but fewer of them per item made
+        private static boolean isDominated(Candidate candidate, List<Candidate> others) {
+            for (Candidate other : others) {
+                if (other.ingredients.keySet().equals(candidate.ingredients.keySet()) && other.costCompare(candidate) < 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Crafting, stonecutting, and smithing transform recipes
+        private static boolean isUsed(Recipe recipe) {
+            if (recipe instanceof SmithingRecipe) {
+                return ((SmithingRecipe) recipe).getType() == SmithingRecipe.Type.TRANSFORM;
+            }
+            return recipe instanceof CraftingRecipe || recipe instanceof StonecuttingRecipe;
+        }
+        /**
+         * Counts the first choice of each slot.
+         * @return Namespaced IDs to counts in the order they first appear, or null if a slot has no items
+         */
+        private Map<String, Integer> countIngredients(List<List<Ingredient>> slots) {
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            for (List<Ingredient> slot : slots) {
+                if (slot.isEmpty()) {
+                    return null;
+                }
+                Ingredient first = slot.get(0);
+                String item;
+                if (first instanceof Ingredient.Item) {
+                    item = ((Ingredient.Item) first).getItem();
+                } else {
+                    List<String> tagItems = tagResolver.apply(((Ingredient.Tag) first).getTag());
+                    if (tagItems.isEmpty()) {
+                        return null;
+                    }
+                    item = tagItems.get(0);
+                }
+                counts.merge(item, 1, Integer::sum);
+            }
+            return counts;
+        }
+
+        // Reverse postorder, so every item comes before the ingredients it uses
+        private static int[] topologicalOrder(int root, int[][] ingredientIDs) {
+            List<Integer> postorder = new ArrayList<>();
+            Set<Integer> visited = new HashSet<>();
+            visit(root, ingredientIDs, visited, postorder);
+            int[] order = new int[postorder.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = postorder.get(order.length - 1 - i);
+            }
+            return order;
+        }
+        private static void visit(int id, int[][] ingredientIDs, Set<Integer> visited, List<Integer> postorder) {
+            if (!visited.add(id)) {
+                return;
+            }
+            for (int ingredient : ingredientIDs[id]) {
+                visit(ingredient, ingredientIDs, visited, postorder);
+            }
+            postorder.add(id);
+        }
+    }
+
+    private static final class Candidate implements Comparable<Candidate> {
+        private final Recipe recipe;
+        private final Map<String, Integer> ingredients;
+        private final int slotCount;
+
+        private Candidate(Recipe recipe, Map<String, Integer> ingredients) {
+            this.recipe = recipe;
+            this.ingredients = ingredients;
+            slotCount = ingredients.values().stream().mapToInt(Integer::intValue).sum();
+        }
+
+        // Compares the number of ingredients needed per item made
+        private int costCompare(Candidate o) {
+            long cost = (long) slotCount * o.recipe.getResult().getCount();
+            long otherCost = (long) o.slotCount * recipe.getResult().getCount();
+            return Long.compare(cost, otherCost);
+        }
+
+        @Override
+        public int compareTo(Candidate o) {
+            return Long.compare(recipe.getSortKey(), o.recipe.getSortKey());
+        }
+    }
+
+}
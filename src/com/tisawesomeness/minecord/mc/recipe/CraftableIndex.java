@@ -0,0 +1,261 @@
+package com.tisawesomeness.minecord.mc.recipe;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * An index of what each recipe needs, used to find every recipe that can be made from an inventory.
+ * <br>Every item is given a dense ID, and each recipe is stored as groups of slots that accept the same items,
+ * with the accepted items as a bitset and the number of slots in the group.
+ * A recipe is a candidate only if every group's bitset shares a bit with the inventory's bitset,
+ * which is checked with word-level ANDs over the words the group covers.
+ * Candidates are then checked against the item counts in the inventory.
+ */
+public final class CraftableIndex {
+
+    private final Map<String, Integer> itemIDs;
+    private final int wordCount;
+    // Sorted in display order
+    private final Recipe[] recipes;
+    private final int[] resultIDs;
+    private final Group[][] groups;
+    // Whether no item fits in two groups of the recipe
+    private final boolean[] disjoint;
+
+    private CraftableIndex(Map<String, Integer> itemIDs, Recipe[] recipes, int[] resultIDs,
+                           Group[][] groups, boolean[] disjoint) {
+        this.itemIDs = itemIDs;
+        this.wordCount = (itemIDs.size() + 63) >>> 6;
+        this.recipes = recipes;
+        this.resultIDs = resultIDs;
+        this.groups = groups;
+        this.disjoint = disjoint;
+    }
+
+    /**
+     * Builds a new index.
+     * @param recipes All recipes
+     * @param tagResolver A function returning the namespaced IDs of the items in a tag
+     * @param filter Only recipes that pass the filter are indexed
+     * @return The index
+     */
+    public static CraftableIndex build(Collection<Recipe> recipes, Function<String, List<String>> tagResolver,
+                                       Predicate<Recipe> filter) {
+        List<Recipe> sorted = new ArrayList<>();
+        for (Recipe recipe : recipes) {
+            if (filter.test(recipe)) {
+                sorted.add(recipe);
+            }
+        }
+        sorted.sort(RecipeRegistry::compareRecipes);
+
+        Map<String, Integer> itemIDs = new HashMap<>();
+        Function<String, Integer> id = item -> itemIDs.computeIfAbsent(item, k -> itemIDs.size());
+        List<Map<Set<Integer>, Integer>> slotCounts = new ArrayList<>(sorted.size());
+        int[] resultIDs = new int[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            Recipe recipe = sorted.get(i);
+            String result = recipe.getResult().getItem();
+            resultIDs[i] = id.apply(result);
+            boolean excludeResult = recipe instanceof TransmuteRecipe
+                    && !((TransmuteRecipe) recipe).shouldIngredientsIncludeResult();
+            // Slots that accept the same items are grouped together
+            Map<Set<Integer>, Integer> counts = new LinkedHashMap<>();
+            for (List<Ingredient> slot : recipe.getSlots()) {
+                Set<Integer> accepted = new TreeSet<>();
+                for (Ingredient ingredient : slot) {
+                    List<String> items = ingredient instanceof Ingredient.Item
+                            ? Collections.singletonList(((Ingredient.Item) ingredient).getItem())
+                            : tagResolver.apply(((Ingredient.Tag) ingredient).getTag());
+                    for (String item : items) {
+                        if (!(excludeResult && item.equals(result))) {
+                            accepted.add(id.apply(item));
+                        }
+                    }
+                }
+                counts.merge(accepted, 1, Integer::sum);
+            }
+            slotCounts.add(counts);
+        }
+
+        Group[][] groups = new Group[sorted.size()][];
+        boolean[] disjoint = new boolean[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            Map<Set<Integer>, Integer> counts = slotCounts.get(i);
+            groups[i] = new Group[counts.size()];
+            Set<Integer> seen = new HashSet<>();
+            disjoint[i] = true;
+            int g = 0;
+            for (Map.Entry<Set<Integer>, Integer> entry : counts.entrySet()) {
+                groups[i][g++] = Group.of(entry.getKey(), entry.getValue());
+                for (int item : entry.getKey()) {
+                    if (!seen.add(item)) {
+                        disjoint[i] = false;
+                    }
+                }
+            }
+        }
+        return new CraftableIndex(Collections.unmodifiableMap(itemIDs), sorted.toArray(new Recipe[0]),
+                resultIDs, groups, disjoint);
+    }
+
+    /**
+     * Finds every recipe that can be made with the items in an inventory.
+     * @param inventory Namespaced IDs of items to the number available, items not in any recipe are ignored
+     * @param recursive If true, also include recipes that need items that can be crafted from the inventory.
+     *                  Only the types of items are checked for these recipes, not whether there are enough of them.
+     * @return A list of recipes in display order that may be empty
+     */
+    public List<Recipe> findCraftable(Map<String, Long> inventory, boolean recursive) {
+        long[] available = new long[itemIDs.size()];
+        long[] bits = new long[wordCount];
+        inventory.forEach((item, count) -> {
+            Integer id = itemIDs.get(item);
+            if (id != null && count > 0) {
+                available[id] += count;
+                bits[id >>> 6] |= 1L << id;
+            }
+        });
+
+        boolean[] craftable = new boolean[recipes.length];
+        for (int i = 0; i < recipes.length; i++) {
+            craftable[i] = intersectsAll(groups[i], bits) && hasEnough(i, available, bits);
+        }
+        if (recursive) {
+            // Any item that can be crafted counts as available until nothing new can be crafted
+            long[] reachable = bits.clone();
+            for (int i = 0; i < recipes.length; i++) {
+                if (craftable[i]) {
+                    reachable[resultIDs[i] >>> 6] |= 1L << resultIDs[i];
+                }
+            }
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                for (int i = 0; i < recipes.length; i++) {
+                    if (!craftable[i] && intersectsAll(groups[i], reachable)) {
+                        craftable[i] = true;
+                        reachable[resultIDs[i] >>> 6] |= 1L << resultIDs[i];
+                        changed = true;
+                    }
+                }
+            }
+        }
+
+        List<Recipe> result = new ArrayList<>();
+        for (int i = 0; i < recipes.length; i++) {
+            if (craftable[i]) {
+                result.add(recipes[i]);
+            }
+        }
+        return result;
+    }
+
+    private static boolean intersectsAll(Group[] recipeGroups, long[] bits) {
+        for (Group group : recipeGroups) {
+            if (!group.intersects(bits)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the inventory has enough items to fill every slot of a recipe.
+     * By Hall's theorem, this is true if every set of groups has at least as many items between them as slots.
+     */
+    private boolean hasEnough(int recipe, long[] available, long[] bits) {
+        Group[] recipeGroups = groups[recipe];
+        if (disjoint[recipe]) {
+            for (Group group : recipeGroups) {
+                if (group.countAvailable(available, bits) < group.slots) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        long[] union = new long[wordCount];
+        for (int subset = 1; subset < 1 << recipeGroups.length; subset++) {
+            Arrays.fill(union, 0);
+            int slots = 0;
+            for (int g = 0; g < recipeGroups.length; g++) {
+                if ((subset & 1 << g) != 0) {
+                    recipeGroups[g].or(union);
+                    slots += recipeGroups[g].slots;
+                }
+            }
+            long count = 0;
+            for (int w = 0; w < wordCount; w++) {
+                long word = union[w] & bits[w];
+                while (word != 0) {
+                    count += available[w << 6 | Long.numberOfTrailingZeros(word)];
+                    word &= word - 1;
+                }
+            }
+            if (count < slots) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The number of indexed recipes
+     */
+    public int size() {
+        return recipes.length;
+    }
+
+    // Slots that accept the same items, stored as the words of a bitset from firstWord onward
+    private static final class Group {
+        private final int firstWord;
+        private final long[] words;
+        private final int slots;
+
+        private Group(int firstWord, long[] words, int slots) {
+            this.firstWord = firstWord;
+            this.words = words;
+            this.slots = slots;
+        }
+
+        private static Group of(Set<Integer> items, int slots) {
+            if (items.isEmpty()) {
+                return new Group(0, new long[0], slots);
+            }
+            int firstWord = Collections.min(items) >>> 6;
+            int lastWord = Collections.max(items) >>> 6;
+            long[] words = new long[lastWord - firstWord + 1];
+            for (int item : items) {
+                words[(item >>> 6) - firstWord] |= 1L << item;
+            }
+            return new Group(firstWord, words, slots);
+        }
+
+        private boolean intersects(long[] bits) {
+            for (int i = 0; i < words.length; i++) {
+                if ((words[i] & bits[firstWord + i]) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        private long countAvailable(long[] available, long[] bits) {
+            long count = 0;
+            for (int i = 0; i < words.length; i++) {
+                long word = words[i] & bits[firstWord + i];
+                while (word != 0) {
+                    count += available[(firstWord + i) << 6 | Long.numberOfTrailingZeros(word)];
+                    word &= word - 1;
+                }
+            }
+            return count;
+        }
+        private void or(long[] union) {
+            for (int i = 0; i < words.length; i++) {
+                union[firstWord + i] |= words[i];
+            }
+        }
+    }
+
+}
@@ -1,11 +1,14 @@
 package com.tisawesomeness.minecord.mc.recipe;
 
-import org.json.JSONObject;
+import com.tisawesomeness.minecord.mc.FeatureFlag;
+import com.tisawesomeness.minecord.util.DataNode;
+
+import java.util.List;
 
 public abstract class CraftingRecipe extends Recipe {
 
-    protected CraftingRecipe(String key, JSONObject recipe) {
-        super(key, recipe);
+    protected CraftingRecipe(String key, DataNode recipe, List<FeatureFlag> flags) {
+        super(key, recipe, flags);
     }
 
     @Override
@@ -1,25 +1,37 @@
 package com.tisawesomeness.minecord.mc.recipe;
 
-import org.apache.commons.collections4.ListUtils;
-import org.json.JSONObject;
+import com.tisawesomeness.minecord.mc.FeatureFlag;
+import com.tisawesomeness.minecord.util.DataNode;
 
+import java.util.Arrays;
 import java.util.List;
 
 public class LegacySmithingRecipe extends Recipe {
 
-    protected LegacySmithingRecipe(String key, JSONObject recipe) {
-        super(key, recipe);
+    private final List<Ingredient> base;
+    private final List<Ingredient> addition;
+    private final List<Ingredient> ingredients;
+
+    protected LegacySmithingRecipe(String key, DataNode recipe, List<FeatureFlag> flags) {
+        super(key, recipe, flags);
+        base = parseIngredients(recipe.get("base"));
+        addition = parseIngredients(recipe.get("addition"));
+        ingredients = join(base, addition);
     }
 
     @Override
     public List<Ingredient> getIngredients() {
-        return ListUtils.union(getBase(), getAddition());
+        return ingredients;
+    }
+    @Override
+    public List<List<Ingredient>> getSlots() {
+        return Arrays.asList(base, addition);
     }
     public List<Ingredient> getBase() {
-        return parseIngredients(recipe.get("base"));
+        return base;
     }
     public List<Ingredient> getAddition() {
-        return parseIngredients(recipe.get("addition"));
+        return addition;
     }
 
     @Override
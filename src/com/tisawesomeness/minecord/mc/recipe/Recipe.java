@@ -3,13 +3,9 @@ package com.tisawesomeness.minecord.mc.recipe;
 import com.tisawesomeness.minecord.mc.FeatureFlag;
 import com.tisawesomeness.minecord.mc.FeatureFlagRegistry;
 import com.tisawesomeness.minecord.mc.Version;
+import com.tisawesomeness.minecord.util.DataNode;
 import com.tisawesomeness.minecord.util.Utils;
-import lombok.AccessLevel;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
-import org.jetbrains.annotations.VisibleForTesting;
-import org.json.JSONArray;
-import org.json.JSONObject;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
@@ -18,9 +14,9 @@ import java.util.Collections;
 import java.util.List;
 
 /**
- * A recipe parsed from the recipes.json format.
+ * A recipe parsed from the recipes.json format. All fields are resolved when the recipe is parsed,
+ * so no JSON is retained.
  */
-@RequiredArgsConstructor(access = AccessLevel.PROTECTED)
 public abstract class Recipe {
 
     private static final List<String> SHAPED_TYPES = Arrays.asList(
@@ -43,46 +39,86 @@ public abstract class Recipe {
      * but recipes defined in recipes.json do not need to have an in-game equivalent.
      */
     @Getter protected final String key;
-    protected final JSONObject recipe;
+    private final CraftResult result;
+    private final @Nullable Version version;
+    private final @Nullable Version datapackVersion;
+    private final @Nullable Version removedVersion;
+    private final @Nullable FeatureFlag featureFlag;
+    private final @Nullable FeatureFlag removedInFlag;
+    private final @Nullable Version flagRemovedVersion;
+    private final double experience;
+    private final boolean animated;
+    private final @Nullable String notes;
+    /**
+     * The position of this recipe in display order, assigned by the registry once all recipes are loaded.
+     * @see RecipeRegistry#compareRecipes(Recipe, Recipe)
+     */
+    @Getter private long sortKey;
+    /**
+     * The position of this recipe in recipes.json, assigned by the registry and used to index recipes in bitsets.
+     */
+    @Getter private int ordinal;
 
-    @VisibleForTesting
-    public JSONObject json() {
-        return recipe;
+    protected Recipe(String key, DataNode recipe, List<FeatureFlag> flags) {
+        this.key = key;
+        result = parseResult(recipe.get("result"));
+        DataNode prop = recipe.optObject("properties");
+        if (prop == null) {
+            prop = DataNode.emptyObject();
+        }
+        version = Version.parse(prop.optString("version", null));
+        datapackVersion = Version.parse(prop.optString("datapack_version", null));
+        removedVersion = Version.parse(prop.optString("removed", null));
+        featureFlag = FeatureFlagRegistry.get(flags, prop.optString("feature_flag", null)).orElse(null);
+        removedInFlag = FeatureFlagRegistry.get(flags, prop.optString("removed_in_flag", null)).orElse(null);
+        flagRemovedVersion = Version.parse(prop.optString("flag_removed_version", null));
+        experience = recipe.optDouble("experience", 0.0);
+        animated = prop.optBoolean("animated", false);
+        notes = Utils.mapNullable(recipe.optObject("lang"),
+                langs -> langs.optObject("en_US"),
+                lang -> lang.optString("notes", null));
+    }
+    private static CraftResult parseResult(DataNode result) {
+        if (result.isString()) {
+            return new CraftResult(result.asString().intern(), 1);
+        }
+        return new CraftResult(result.getString("id").intern(), result.optInt("count", 1));
     }
 
     /**
-     * Creates a new recipe from the given key and JSON. Note that even if a recipe is returned,
-     * not all the JSON is parsed immediately, so recipe methods may error if the format is invalid.
+     * Creates a new recipe from the given key and JSON. The JSON is fully parsed and can be discarded afterward.
      * @param key id/key/name of this recipe
-     * @param recipe the JSON of a single recipe (passed by reference)
+     * @param recipe the JSON of a single recipe
+     * @param flags the feature flags being loaded with this recipe
      * @return the recipe
      * @throws IllegalArgumentException if the recipe type is invalid or unsupported
+     * @throws org.json.JSONException if a required field is missing
      */
-    public static Recipe parse(String key, JSONObject recipe) {
+    public static Recipe parse(String key, DataNode recipe, List<FeatureFlag> flags) {
         String type = recipe.getString("type").substring("minecraft:".length());
         if (SHAPED_TYPES.contains(type)) {
-            return new ShapedRecipe(key, recipe);
+            return new ShapedRecipe(key, recipe, flags);
         }
         if (SHAPELSS_TYPES.contains(type)) {
-            return new ShapelessRecipe(key, recipe);
+            return new ShapelessRecipe(key, recipe, flags);
         }
         if ("crafting_transmute".equals(type)) {
-            return new TransmuteRecipe(key, recipe);
+            return new TransmuteRecipe(key, recipe, flags);
         }
         if (SMELTING_TYPES.contains(type)) {
-            return new SmeltingRecipe(key, recipe);
+            return new SmeltingRecipe(key, recipe, flags);
         }
         if ("brewing".equals(type)) {
-            return new BrewingRecipe(key, recipe);
+            return new BrewingRecipe(key, recipe, flags);
         }
         if ("stonecutting".equals(type)) {
-            return new StonecuttingRecipe(key, recipe);
+            return new StonecuttingRecipe(key, recipe, flags);
         }
         if ("smithing".equals(type)) {
-            return new LegacySmithingRecipe(key, recipe);
+            return new LegacySmithingRecipe(key, recipe, flags);
         }
         if (SMITHING_TYPES.contains(type)) {
-            return new SmithingRecipe(key, recipe);
+            return new SmithingRecipe(key, recipe, flags);
         }
         throw new IllegalArgumentException("invalid recipe type " + type);
     }
@@ -107,75 +143,66 @@ public abstract class Recipe {
      * @return output of crafting this recipe
      */
     public CraftResult getResult() {
-        Object result = recipe.get("result");
-        if (result instanceof String) {
-            return new CraftResult((String) result, 1);
-        }
-        JSONObject obj = (JSONObject) result;
-        return new CraftResult(obj.getString("id"), obj.optInt("count", 1));
+        return result;
+    }
+
+    /**
+     * Gets the ingredients each slot of this recipe accepts, where any one ingredient in a slot can be used.
+     * Every slot is listed, so a slot used twice appears twice.
+     * @return a list of slots that should not be modified
+     */
+    public List<List<Ingredient>> getSlots() {
+        return Collections.singletonList(getIngredients());
     }
 
     /**
      * @return the version this recipe was added
      */
     public @Nullable Version getVersion() {
-        return Utils.mapNullable(recipe.optJSONObject("properties"),
-                prop -> prop.optString("version", null),
-                Version::parse);
+        return version;
     }
     /**
      * @return the version this recipe was added to an experimental datapack
      */
     public @Nullable Version getDatapackVersion() {
-        return Utils.mapNullable(recipe.optJSONObject("properties"),
-                prop -> prop.optString("datapack_version", null),
-                Version::parse);
+        return datapackVersion;
     }
     /**
      * @return the version this recipe was removed
      */
     public @Nullable Version getRemovedVersion() {
-        return Utils.mapNullable(recipe.optJSONObject("properties"),
-                prop -> prop.optString("removed", null),
-                Version::parse);
+        return removedVersion;
     }
     /**
      * @return the feature flag required to use this recipe in its introduction version
      */
     public @Nullable FeatureFlag getFeatureFlag() {
-        String flag = Utils.mapNullable(recipe.optJSONObject("properties"),
-                prop -> prop.optString("feature_flag", null));
-        return FeatureFlagRegistry.get(flag).orElse(null);
+        return featureFlag;
     }
     /**
      * @return whether this recipe has been released, and is no longer experimental
      */
     public boolean isReleased() {
-        FeatureFlag flag = getFeatureFlag();
-        return flag == null || flag.isReleased();
+        return featureFlag == null || featureFlag.isReleased();
     }
     /**
      * @return the feature flag that removes this recipe
      */
     public @Nullable FeatureFlag getRemovedInFlag() {
-        String flag = Utils.mapNullable(recipe.optJSONObject("properties"),
-                prop -> prop.optString("removed_in_flag", null));
-        return FeatureFlagRegistry.get(flag).orElse(null);
+        return removedInFlag;
     }
     /**
      * @return the version this recipe's feature flag was removed in, but only if that version is different from the flag's release version
      */
     public @Nullable Version getFlagRemovedVersion() {
-        return Utils.mapNullable(recipe.optJSONObject("properties"),
-                prop -> prop.optString("flag_removed_version", null),
-                Version::parse);
+        return flagRemovedVersion;
     }
 
     /**
      * @return experience gained for crafting this recipe
      */
     public double getExperience() {
-        return recipe.optDouble("experience", 0.0);
+        return experience;
     }
 
     /**
@@ -183,38 +210,58 @@ public abstract class Recipe {
      * @return whether this recipe generates an animated image
      */
     public boolean isAnimated() {
-        Boolean animated = Utils.mapNullable(recipe.optJSONObject("properties"),
-                prop -> prop.optBoolean("animated", false));
-        return Boolean.TRUE.equals(animated);
+        return animated;
     }
 
     /**
      * @return additional details about the recipe to display to the user
      */
     public @Nullable String getNotes() {
-        return Utils.mapNullable(recipe.optJSONObject("lang"),
-                langs -> langs.optJSONObject("en_US"),
-                lang -> lang.optString("notes", null));
+        return notes;
+    }
+
+    void setSortKey(long sortKey) {
+        this.sortKey = sortKey;
+    }
+    void setOrdinal(int ordinal) {
+        this.ordinal = ordinal;
     }
 
-    protected static List<Ingredient> parseIngredients(Object ingredients) {
-        if (ingredients instanceof String) {
-            String ingredient = (String) ingredients;
+    /**
+     * Parses an ingredient or list of ingredients.
+     * @param ingredients the JSON string or array
+     * @return an unmodifiable list of ingredients
+     */
+    protected static List<Ingredient> parseIngredients(DataNode ingredients) {
+        if (ingredients.isString()) {
+            String ingredient = ingredients.asString();
             if (ingredient.startsWith("#")) {
-                return Collections.singletonList(new Ingredient.Tag(ingredient.substring(1)));
+                return Collections.singletonList(new Ingredient.Tag(ingredient.substring(1).intern()));
             }
-            return Collections.singletonList(new Ingredient.Item(ingredient));
+            return Collections.singletonList(new Ingredient.Item(ingredient.intern()));
         }
-        if (ingredients instanceof JSONArray) {
-            JSONArray arr = (JSONArray) ingredients;
-            List<Ingredient> list = new ArrayList<>();
-            for (int i = 0; i < arr.length(); i++) {
-                list.add(new Ingredient.Item(arr.getString(i)));
+        if (ingredients.isArray()) {
+            List<Ingredient> list = new ArrayList<>(ingredients.length());
+            for (DataNode item : ingredients.members()) {
+                list.add(new Ingredient.Item(item.asString().intern()));
             }
-            return list;
+            return Collections.unmodifiableList(list);
         }
         throw new IllegalArgumentException("invalid ingredient " + ingredients);
     }
+    /**
+     * Joins lists of ingredients into one unmodifiable list, in order and keeping duplicates.
+     * @param lists the lists to join
+     * @return the joined list
+     */
+    @SafeVarargs
+    protected static List<Ingredient> join(List<Ingredient>... lists) {
+        List<Ingredient> joined = new ArrayList<>();
+        for (List<Ingredient> list : lists) {
+            joined.addAll(list);
+        }
+        return Collections.unmodifiableList(joined);
+    }
 
     @Override
     public String toString() {
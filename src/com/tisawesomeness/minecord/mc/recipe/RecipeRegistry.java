@@ -3,21 +3,23 @@ package com.tisawesomeness.minecord.mc.recipe;
 import com.tisawesomeness.minecord.Bot;
 import com.tisawesomeness.minecord.Config;
 import com.tisawesomeness.minecord.mc.FeatureFlag;
-import com.tisawesomeness.minecord.mc.FeatureFlagRegistry;
+import com.tisawesomeness.minecord.mc.GameData;
 import com.tisawesomeness.minecord.mc.Version;
 import com.tisawesomeness.minecord.mc.VersionRegistry;
 import com.tisawesomeness.minecord.mc.item.ItemRegistry;
-import com.tisawesomeness.minecord.util.RequestUtils;
+import com.tisawesomeness.minecord.util.DataNode;
+import com.tisawesomeness.minecord.util.DataSnapshot;
 import net.dv8tion.jda.api.EmbedBuilder;
 import org.apache.commons.collections4.OrderedMap;
 import org.apache.commons.collections4.map.LinkedMap;
+import org.apache.commons.collections4.map.UnmodifiableOrderedMap;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.VisibleForTesting;
-import org.json.JSONArray;
-import org.json.JSONObject;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class RecipeRegistry {
@@ -26,40 +28,167 @@ public class RecipeRegistry {
             ShapedRecipe.class, ShapelessRecipe.class, TransmuteRecipe.class, StonecuttingRecipe.class,
             SmeltingRecipe.class, SmithingRecipe.class, LegacySmithingRecipe.class, BrewingRecipe.class
     );
+    private static final Comparator<Recipe> SORT_KEY_COMPARATOR = Comparator.comparingLong(Recipe::getSortKey);
 
-    private static OrderedMap<String, Recipe> recipes;
-    private static JSONObject tags;
+    // Sort key fields from most to least significant, as bit widths
+    private static final int REMOVED_BITS = 10;
+    private static final int FLAG_BITS = 6;
+    private static final int VERSION_BITS = 10;
+    private static final int DATAPACK_BITS = 10;
+    private static final int TYPE_BITS = 4;
+    private static final int SMITHING_BITS = 2;
+    private static final int KEY_BITS = 20;
+
+    // Searches read it once so they never mix old and new data
+    private static Data current() {
+        return GameData.current().getRecipes();
+    }
 
     @VisibleForTesting
     public static OrderedMap<String, Recipe> getRecipes() {
-        return recipes;
+        return current().recipes;
     }
     public static @Nullable Recipe get(String key) {
-        return recipes.get(key);
+        return current().recipes.get(key);
     }
     public static boolean contains(String key) {
-        return recipes.containsKey(key);
+        return current().recipes.containsKey(key);
     }
 
     /**
-     * Initializes the recipe database by reading from file
+     * Loads the recipe database from file, without publishing it
      *
      * @param path The path to read from
+     * @param flags The feature flags being loaded with the recipes
+     * @return The recipes and their indexes
      * @throws IOException on IO error
+     * @see GameData#init(String, java.util.concurrent.Executor)
      */
-    public static void init(String path) throws IOException {
-        parseRecipes(RequestUtils.loadJSON(path + "/recipes.json"));
+    public static Data load(String path, List<FeatureFlag> flags) throws IOException {
+        OrderedMap<String, Recipe> recipes = parseRecipes(DataSnapshot.load(path + "/recipes.json"), flags);
         System.out.println("Loaded " + recipes.size() + " recipes");
-        tags = RequestUtils.loadJSON(path + "/tags.json");
+        Map<String, TagClosure> tags = resolveTags(DataSnapshot.load(path + "/tags.json"), flags);
+        System.out.println("Loaded " + tags.size() + " tags");
+        Function<String, List<String>> tagResolver = tag -> getTag(tags, tag);
+        // Craftable search only uses released recipes, so it only uses tag items from released flags
+        Set<String> releasedFlagIDs = flags.stream()
+                .filter(flag -> flag == null || flag.isReleased())
+                .map(flag -> flag == null ? "vanilla" : flag.getId())
+                .collect(Collectors.toSet());
+        Function<String, List<String>> releasedTagResolver = tag -> getTag(tags, tag, releasedFlagIDs);
+        // Indexes only some commands use are built in the background
+        return new Data(
+                UnmodifiableOrderedMap.unmodifiableOrderedMap(recipes),
+                buildOutputIndex(recipes),
+                CompletableFuture.supplyAsync(() -> buildIngredientIndex(recipes, tagResolver)),
+                tags,
+                CompletableFuture.supplyAsync(() -> CraftTree.build(recipes.values(), tagResolver)),
+                CompletableFuture.supplyAsync(() -> CraftableIndex.build(recipes.values(), releasedTagResolver,
+                        recipe -> recipe.getRemovedVersion() == null && recipe.isReleased() && !isIgnoredRecipe(recipe))),
+                RecipeVersionIndex.build(recipes.values())
+        );
     }
-    private static void parseRecipes(JSONObject recipesObj) {
+    private static OrderedMap<String, Recipe> parseRecipes(DataNode recipesObj, List<FeatureFlag> flags) {
         OrderedMap<String, Recipe> recipes = new LinkedMap<>();
-        Iterable<String> keys = recipesObj::keys;
-        for (String key : keys) {
-            Recipe recipe = Recipe.parse(key, recipesObj.getJSONObject(key));
-            recipes.put(key, recipe);
+        for (DataNode recipeObj : recipesObj.members()) {
+            Recipe recipe = Recipe.parse(recipeObj.getKey(), recipeObj, flags);
+            recipe.setOrdinal(recipes.size());
+            recipes.put(recipe.getKey(), recipe);
+        }
+        assignSortKeys(recipes.values(), flags);
+        return recipes;
+    }
+    private static Map<String, List<Recipe>> buildOutputIndex(OrderedMap<String, Recipe> recipes) {
+        Map<String, List<Recipe>> index = new HashMap<>();
+        for (Recipe recipe : recipes.values()) {
+            if (isIgnoredRecipe(recipe)) {
+                continue;
+            }
+            String result = recipe.getResult().getItem();
+            index.computeIfAbsent(result, k -> new ArrayList<>()).add(recipe);
+        }
+        // Wet sponge into bucket special case
+        Recipe sponge = recipes.get("sponge");
+        if (sponge != null) {
+            index.computeIfAbsent("minecraft:water_bucket", k -> new ArrayList<>()).add(sponge);
+        }
+        index.replaceAll((k, list) -> sortedCopy(list));
+        return index;
+    }
+
+    private static Map<String, List<Recipe>> buildIngredientIndex(OrderedMap<String, Recipe> recipes,
+                                                                  Function<String, List<String>> tagResolver) {
+        Map<String, List<Recipe>> index = new HashMap<>();
+        for (Recipe recipe : recipes.values()) {
+            if (isIgnoredRecipe(recipe)) {
+                continue;
+            }
+            for (String item : getIngredientItems(recipe, tagResolver)) {
+                index.computeIfAbsent(item, k -> new ArrayList<>()).add(recipe);
+            }
         }
-        RecipeRegistry.recipes = recipes;
+        index.replaceAll((k, list) -> sortedCopy(list));
+        return index;
+    }
+    private static List<Recipe> sortedCopy(List<Recipe> recipes) {
+        List<Recipe> sorted = new ArrayList<>(recipes);
+        sorted.sort(SORT_KEY_COMPARATOR);
+        return Collections.unmodifiableList(sorted);
+    }
+
+    /**
+     * Packs every field compared by {@link #compareRecipes(Recipe, Recipe)} into one key per recipe,
+     * so recipe lists can be sorted once at load time by comparing longs.
+     * Versions and keys are replaced with their rank among all recipes.
+     * @param recipes All recipes
+     * @param flags All feature flags in release order
+     * @throws IllegalStateException if there are too many versions, flags, or recipes to fit in a key
+     */
+    private static void assignSortKeys(Collection<Recipe> recipes, List<FeatureFlag> flags) {
+        Map<Version, Integer> versionRanks = new TreeMap<>();
+        List<String> keys = new ArrayList<>(recipes.size());
+        for (Recipe recipe : recipes) {
+            for (Version version : Arrays.asList(recipe.getVersion(), recipe.getDatapackVersion(), recipe.getRemovedVersion())) {
+                if (version != null) {
+                    versionRanks.put(version, 0);
+                }
+            }
+            keys.add(recipe.getKey());
+        }
+        int rank = 0;
+        for (Map.Entry<Version, Integer> entry : versionRanks.entrySet()) {
+            entry.setValue(rank++);
+        }
+        int versionCount = versionRanks.size();
+        Collections.sort(keys);
+        Map<String, Integer> keyRanks = new HashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            keyRanks.put(keys.get(i), i);
+        }
+
+        for (Recipe recipe : recipes) {
+            Version removed = recipe.getRemovedVersion();
+            Version datapack = recipe.getDatapackVersion();
+            Version version = recipe.getVersion();
+            // Current recipes first, then newest removed version first
+            long key = pack(0, removed == null ? 0 : versionCount - versionRanks.get(removed), REMOVED_BITS);
+            // Released flags compare equal, unreleased flags go last in release order
+            key = pack(key, recipe.isReleased() ? 0 : flags.indexOf(recipe.getFeatureFlag()) + 1, FLAG_BITS);
+            key = pack(key, version == null ? 0 : versionRanks.get(version) + 1, VERSION_BITS);
+            // Newest datapack version first, no datapack version last
+            key = pack(key, datapack == null ? versionCount : versionCount - 1 - versionRanks.get(datapack), DATAPACK_BITS);
+            key = pack(key, RECIPE_TYPE_ORDER.indexOf(recipe.getClass()) + 1, TYPE_BITS);
+            int smithingRank = recipe instanceof SmithingRecipe ? ((SmithingRecipe) recipe).getType().ordinal() : 0;
+            key = pack(key, smithingRank, SMITHING_BITS);
+            key = pack(key, keyRanks.get(recipe.getKey()), KEY_BITS);
+            recipe.setSortKey(key);
+        }
+    }
+    private static long pack(long key, int value, int bits) {
+        if (value >= 1 << bits) {
+            throw new IllegalStateException(String.format("Sort key field %d does not fit in %d bits", value, bits));
+        }
+        return key << bits | value;
     }
 
     /**
@@ -136,36 +265,48 @@ public class RecipeRegistry {
      * @return Null if the item cannot be found, otherwise a list of recipe names that may be empty
      */
     public static List<Recipe> searchOutput(String item) {
+        return searchOutput(current(), item);
+    }
+    private static List<Recipe> searchOutput(Data d, String item) {
         if (item.contains("potion") || item.contains("tipped_arrow")) {
-            return searchItemOutput(item);
+            return searchItemOutput(d, item);
         }
-        return searchItemOutput(ItemRegistry.getNamespacedID(item));
+        return searchItemOutput(d, ItemRegistry.getNamespacedID(item));
     }
 
     /**
      * Searches the database for all recipes with an item as the output
      *
      * @param namespacedID The namespaced ID of the item to search with
-     * @return A list of recipe names that may be empty
+     * @return An unmodifiable list of recipes in display order that may be empty
      */
     public static List<Recipe> searchItemOutput(String namespacedID) {
-        // Loop through all recipes
-        List<Recipe> recipesFound = new ArrayList<>();
-        for (Recipe recipe : recipes.values()) {
-            if (isIgnoredRecipe(recipe)) {
-                continue;
-            }
-            String result = recipe.getResult().getItem();
-            // Check if they match
-            if (result.equals(namespacedID)) {
-                recipesFound.add(recipe);
-            }
-        }
-        // Wet sponge into bucket special case
-        if (namespacedID.equals("minecraft:water_bucket")) {
-            recipesFound.add(recipes.get("sponge"));
-        }
-        return recipesFound;
+        return searchItemOutput(current(), namespacedID);
+    }
+    private static List<Recipe> searchItemOutput(Data d, String namespacedID) {
+        return d.outputIndex.getOrDefault(namespacedID, Collections.emptyList());
+    }
+    /**
+     * Searches the database for all recipes with an item as the output that are in a version
+     *
+     * @param item The item to search for
+     * @param version The version to filter to, or null for all versions
+     * @return An unmodifiable list of recipes in display order that may be empty
+     */
+    public static List<Recipe> searchOutput(String item, @Nullable Version version) {
+        Data d = current();
+        return filterByVersion(d, searchOutput(d, item), version);
+    }
+    /**
+     * Searches the database for all recipes with an item as the output that are in a version
+     *
+     * @param namespacedID The namespaced ID of the item to search with
+     * @param version The version to filter to, or null for all versions
+     * @return An unmodifiable list of recipes in display order that may be empty
+     */
+    public static List<Recipe> searchItemOutput(String namespacedID, @Nullable Version version) {
+        Data d = current();
+        return filterByVersion(d, searchItemOutput(d, namespacedID), version);
     }
     // Blasting, smoking, and campfire recipes are ignored to prevent cluttering with duplicates
     private static boolean isIgnoredRecipe(Recipe recipe) {
@@ -183,22 +324,73 @@ public class RecipeRegistry {
      * @return Null if the item cannot be found, otherwise a list of recipe names that may be empty
      */
     public static List<Recipe> searchIngredient(String item) {
+        return searchIngredient(current(), item);
+    }
+    private static List<Recipe> searchIngredient(Data d, String item) {
         if (item.contains("potion") || item.contains("tipped_arrow")) {
-            return searchItemIngredient(item);
+            return searchItemIngredient(d, item);
         }
-        return searchItemIngredient(ItemRegistry.getNamespacedID(item));
+        return searchItemIngredient(d, ItemRegistry.getNamespacedID(item));
     }
 
     /**
      * Searches the database for all recipes with an item as an input
      *
      * @param namespacedID The namespaced ID of the item to search with
-     * @return Null if the item cannot be found, otherwise a list of recipe names that may be empty
+     * @return An unmodifiable list of recipes in display order that may be empty
      */
-    private static List<Recipe> searchItemIngredient(String namespacedID) {
-        return recipes.values().stream()
-                .filter(r -> !isIgnoredRecipe(r) && getIngredientItems(r).contains(namespacedID))
-                .collect(Collectors.toList());
+    private static List<Recipe> searchItemIngredient(Data d, String namespacedID) {
+        return d.ingredientIndex.join().getOrDefault(namespacedID, Collections.emptyList());
+    }
+    /**
+     * Searches the database for all recipes with an item as an input that are in a version
+     *
+     * @param item The item to search for
+     * @param version The version to filter to, or null for all versions
+     * @return An unmodifiable list of recipes in display order that may be empty
+     */
+    public static List<Recipe> searchIngredient(String item, @Nullable Version version) {
+        Data d = current();
+        return filterByVersion(d, searchIngredient(d, item), version);
+    }
+
+    // The recipes must come from the same data as the version index, since it is keyed by recipe ordinals
+    private static List<Recipe> filterByVersion(Data d, List<Recipe> recipes, @Nullable Version version) {
+        return version == null ? recipes : d.versionIndex.filter(recipes, version);
+    }
+
+    /**
+     * Expands a crafting request into raw materials
+     *
+     * @param item The item key to craft
+     * @param amount The number of items to craft
+     * @return The plan, with no steps if the item cannot be crafted
+     * @throws IllegalArgumentException if the amount is not positive
+     */
+    public static CraftPlan planCraft(String item, long amount) {
+        CraftTree craftTree = current().craftTree.join();
+        if (item.contains("potion") || item.contains("tipped_arrow")) {
+            return craftTree.plan(item, amount);
+        }
+        return craftTree.plan(ItemRegistry.getNamespacedID(item), amount);
+    }
+
+    /**
+     * Finds every current recipe that can be made from an inventory
+     *
+     * @param inventory Item keys to the number of that item available
+     * @param recursive Whether to include recipes that need items crafted from the inventory first
+     * @return A list of recipes in display order that may be empty
+     */
+    public static List<Recipe> searchCraftable(Map<String, Long> inventory, boolean recursive) {
+        Map<String, Long> namespacedInventory = new HashMap<>();
+        inventory.forEach((item, count) -> {
+            String namespacedID = item.contains("potion") || item.contains("tipped_arrow")
+                    ? item
+                    : ItemRegistry.getNamespacedID(item);
+            namespacedInventory.merge(namespacedID, count, Long::sum);
+        });
+        return current().craftableIndex.join().findCraftable(namespacedInventory, recursive);
     }
 
     /**
@@ -207,7 +399,11 @@ public class RecipeRegistry {
      * @return A set of namespaced item ids that may be empty
      */
     public static List<String> getIngredientItems(Recipe recipe) {
-        List<String> items = expandIngredients(recipe.getIngredients());
+        Map<String, TagClosure> tags = current().tags;
+        return getIngredientItems(recipe, tag -> getTag(tags, tag));
+    }
+    private static List<String> getIngredientItems(Recipe recipe, Function<String, List<String>> tagResolver) {
+        List<String> items = expandIngredients(recipe.getIngredients(), tagResolver);
         if (recipe instanceof TransmuteRecipe && !((TransmuteRecipe) recipe).shouldIngredientsIncludeResult()) {
             items.remove(recipe.getResult().getItem());
         }
@@ -215,6 +411,10 @@ public class RecipeRegistry {
     }
     @VisibleForTesting
     public static List<String> expandIngredients(List<Ingredient> ingredients) {
+        Map<String, TagClosure> tags = current().tags;
+        return expandIngredients(ingredients, tag -> getTag(tags, tag));
+    }
+    private static List<String> expandIngredients(List<Ingredient> ingredients, Function<String, List<String>> tagResolver) {
         // LinkedHashSet required to de-duplicate items in shapeless recipes while preserving consistent ordering
         LinkedHashSet<String> items = new LinkedHashSet<>();
         for (Ingredient ingredient : ingredients) {
@@ -222,53 +422,154 @@ public class RecipeRegistry {
                 items.add(((Ingredient.Item) ingredient).getItem());
             } else {
                 String tag = ((Ingredient.Tag) ingredient).getTag();
-                items.addAll(getTag(tag));
+                items.addAll(tagResolver.apply(tag));
             }
         }
         return new ArrayList<>(items);
     }
 
     /**
-     * Recursively finds all blocks that belong to a tag
-     * @param tag The namespaced ID of the tag
-     * @return A list of blocks, with "minecraft:"
+     * Resolves every tag in every feature flag, expanding nested tags
+     * @param tagsObj The tags.json object, with tags grouped by feature flag ID
+     * @param flags All feature flags in release order
+     * @return A map of tag names to closures
+     * @throws IllegalArgumentException if a tag is invalid or a tag includes itself
      */
-    @VisibleForTesting
-    public static List<String> getTag(String tag) {
-        if (!tag.contains(":")) {
-            tag = "minecraft:" + tag;
+    private static Map<String, TagClosure> resolveTags(DataNode tagsObj, List<FeatureFlag> flags) {
+        List<String> flagIDs = flags.stream()
+                .map(flag -> flag == null ? "vanilla" : flag.getId())
+                .collect(Collectors.toList());
+        Map<String, TagClosure> closures = new HashMap<>();
+        for (String flagID : flagIDs) {
+            DataNode flagObj = tagsObj.optObject(flagID);
+            if (flagObj == null) {
+                continue;
+            }
+            for (DataNode tag : flagObj.members()) {
+                resolveTag(tag.getKey(), tagsObj, flagIDs, closures, new ArrayDeque<>());
+            }
         }
-        String[] parts = tag.split(":");
-        if (parts.length != 2) {
-            throw new IllegalArgumentException("invalid tag " + tag);
+        return Collections.unmodifiableMap(closures);
+    }
+    private static TagClosure resolveTag(String tagName, DataNode tagsObj, List<String> flagIDs,
+                                         Map<String, TagClosure> closures, Deque<String> resolving) {
+        TagClosure resolved = closures.get(tagName);
+        if (resolved != null) {
+            return resolved;
         }
-        String namespace = parts[0];
-        if (!namespace.equals("minecraft")) {
-            throw new IllegalArgumentException("invalid tag namespace " + tag);
+        if (resolving.contains(tagName)) {
+            List<String> cycle = new ArrayList<>(resolving);
+            Collections.reverse(cycle);
+            cycle.add(tagName);
+            throw new IllegalArgumentException("Tag cycle: " + String.join(" -> ", cycle));
         }
-        String tagName = parts[1];
+        resolving.push(tagName);
 
-        List<String> items = new ArrayList<>(); // remembers insertion order
-        for (FeatureFlag flag : FeatureFlagRegistry.getFlags()) {
-            String id = flag == null ? "vanilla" : flag.getId();
-            JSONObject flagObj = tags.optJSONObject(id);
+        // LinkedHashSet de-duplicates while remembering insertion order
+        LinkedHashSet<String> items = new LinkedHashSet<>();
+        List<LinkedHashSet<String>> flagItems = new ArrayList<>();
+        for (int i = 0; i < flagIDs.size(); i++) {
+            flagItems.add(new LinkedHashSet<>());
+        }
+        boolean found = false;
+        for (int i = 0; i < flagIDs.size(); i++) {
+            DataNode flagObj = tagsObj.optObject(flagIDs.get(i));
             if (flagObj == null) {
                 continue;
             }
-            JSONArray tagArr = flagObj.optJSONArray(tagName);
+            DataNode tagArr = flagObj.optArray(tagName);
             if (tagArr == null) {
                 continue;
             }
-            for (int i = 0; i < tagArr.length(); i++) {
-                String item = tagArr.getString(i);
+            found = true;
+            for (DataNode element : tagArr.members()) {
+                String item = element.asString();
                 if (item.startsWith("#")) {
-                    items.addAll(getTag(item.substring(1)));
+                    String nestedName = parseTagName(item.substring(1));
+                    TagClosure nested = resolveTag(nestedName, tagsObj, flagIDs, closures, resolving);
+                    items.addAll(nested.getItems());
+                    // Nested items need both this flag and the flag that added them to the nested tag
+                    for (Map.Entry<String, List<String>> entry : nested.getItemsByFlag().entrySet()) {
+                        int flag = Math.max(i, flagIDs.indexOf(entry.getKey()));
+                        flagItems.get(flag).addAll(entry.getValue());
+                    }
                 } else {
                     items.add(item);
+                    flagItems.get(i).add(item);
                 }
             }
         }
-        return items;
+
+        resolving.pop();
+        // Unknown tags are empty, and only tags in tags.json are kept
+        if (!found) {
+            return new TagClosure(tagName, Collections.emptyList(), Collections.emptyMap());
+        }
+        TagClosure closure = new TagClosure(tagName,
+                Collections.unmodifiableList(Arrays.asList(items.toArray(new String[0]))),
+                buildItemsByFlag(flagIDs, flagItems));
+        closures.put(tagName, closure);
+        return closure;
+    }
+    // Keeps each item only in the earliest flag that adds it, and drops flags that add nothing
+    private static Map<String, List<String>> buildItemsByFlag(List<String> flagIDs,
+                                                              List<LinkedHashSet<String>> flagItems) {
+        Map<String, List<String>> itemsByFlag = new LinkedHashMap<>();
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < flagIDs.size(); i++) {
+            List<String> added = new ArrayList<>();
+            for (String item : flagItems.get(i)) {
+                if (seen.add(item)) {
+                    added.add(item);
+                }
+            }
+            if (!added.isEmpty()) {
+                itemsByFlag.put(flagIDs.get(i), Collections.unmodifiableList(added));
+            }
+        }
+        return Collections.unmodifiableMap(itemsByFlag);
+    }
+
+    /**
+     * Finds all items that belong to a tag, including items in nested tags
+     * @param tag The namespaced ID of the tag
+     * @return An unmodifiable list of items without duplicates, with "minecraft:"
+     * @throws IllegalArgumentException if the tag is invalid
+     */
+    @VisibleForTesting
+    public static List<String> getTag(String tag) {
+        return getTag(current().tags, tag);
+    }
+    private static List<String> getTag(Map<String, TagClosure> tags, String tag) {
+        TagClosure closure = tags.get(parseTagName(tag));
+        return closure == null ? Collections.emptyList() : closure.getItems();
+    }
+    private static List<String> getTag(Map<String, TagClosure> tags, String tag, Collection<String> enabledFlagIDs) {
+        TagClosure closure = tags.get(parseTagName(tag));
+        return closure == null ? Collections.emptyList() : closure.getItems(enabledFlagIDs);
+    }
+    /**
+     * Gets a tag with all nested tags resolved, including which feature flag adds each item
+     * @param tag The namespaced ID of the tag
+     * @return The tag, or null if the tag does not exist
+     * @throws IllegalArgumentException if the tag is invalid
+     */
+    public static @Nullable TagClosure getTagClosure(String tag) {
+        return current().tags.get(parseTagName(tag));
+    }
+    private static String parseTagName(String tag) {
+        if (!tag.contains(":")) {
+            tag = "minecraft:" + tag;
+        }
+        String[] parts = tag.split(":");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("invalid tag " + tag);
+        }
+        String namespace = parts[0];
+        if (!namespace.equals("minecraft")) {
+            throw new IllegalArgumentException("invalid tag namespace " + tag);
+        }
+        return parts[1];
     }
 
     /**
@@ -279,48 +580,52 @@ public class RecipeRegistry {
         return recipe.getKey() + (recipe.isAnimated() ? ".gif" : ".png");
     }
 
+    /**
+     * Compares recipes in display order: current recipes first, then by release, version, type, and key.
+     * Lists returned by recipe searches are already in this order.
+     * @return the comparison of the recipes' sort keys
+     */
     public static int compareRecipes(Recipe recipe1, Recipe recipe2) {
-        Version removedVer1 = recipe1.getRemovedVersion();
-        Version removedVer2 = recipe2.getRemovedVersion();
-        if (removedVer1 == null && removedVer2 != null) {
-            return -1;
-        }
-        if (removedVer1 != null && removedVer2 == null) {
-            return 1;
-        }
-        int removedVerCompare = Version.NULLS_FIRST_COMPARATOR.compare(removedVer1, removedVer2);
-        if (removedVerCompare != 0) {
-            return -removedVerCompare;
-        }
-        if (!recipe1.isReleased() || !recipe2.isReleased()) {
-            int featureCompare = FeatureFlagRegistry.RELEASE_ORDER_COMPARATOR.compare(recipe1.getFeatureFlag(), recipe2.getFeatureFlag());
-            if (featureCompare != 0) {
-                return featureCompare;
-            }
-        }
-        int verCompare = Version.NULLS_FIRST_COMPARATOR.compare(recipe1.getVersion(), recipe2.getVersion());
-        if (verCompare != 0) {
-            return verCompare;
-        }
-        int datapackVerCompare = Version.NULLS_FIRST_COMPARATOR.compare(recipe1.getDatapackVersion(), recipe2.getDatapackVersion());
-        if (datapackVerCompare != 0) {
-            return -datapackVerCompare;
-        }
-        int typeIdx1 = RECIPE_TYPE_ORDER.indexOf(recipe1.getClass());
-        int typeIdx2 = RECIPE_TYPE_ORDER.indexOf(recipe2.getClass());
-        int typeCompare = Integer.compare(typeIdx1, typeIdx2);
-        if (typeCompare != 0) {
-            return typeCompare;
+        return SORT_KEY_COMPARATOR.compare(recipe1, recipe2);
+    }
+
+    /**
+     * Everything loaded from the recipe and tag files, built before it is published and never modified after.
+     * Indexes in futures are built in the background, and {@link GameData#init(String, java.util.concurrent.Executor)}
+     * waits for them before publishing.
+     */
+    public static final class Data {
+        private final OrderedMap<String, Recipe> recipes;
+        // Namespaced ID of the result to recipes in display order, without ignored recipes
+        private final Map<String, List<Recipe>> outputIndex;
+        // Namespaced ID of each ingredient, with tags expanded, to recipes in display order, without ignored recipes
+        private final CompletableFuture<Map<String, List<Recipe>>> ingredientIndex;
+        // Tag name without namespace to resolved tag
+        private final Map<String, TagClosure> tags;
+        private final CompletableFuture<CraftTree> craftTree;
+        private final CompletableFuture<CraftableIndex> craftableIndex;
+        private final RecipeVersionIndex versionIndex;
+
+        private Data(OrderedMap<String, Recipe> recipes, Map<String, List<Recipe>> outputIndex,
+                     CompletableFuture<Map<String, List<Recipe>>> ingredientIndex, Map<String, TagClosure> tags,
+                     CompletableFuture<CraftTree> craftTree, CompletableFuture<CraftableIndex> craftableIndex,
+                     RecipeVersionIndex versionIndex) {
+            this.recipes = recipes;
+            this.outputIndex = outputIndex;
+            this.ingredientIndex = ingredientIndex;
+            this.tags = tags;
+            this.craftTree = craftTree;
+            this.craftableIndex = craftableIndex;
+            this.versionIndex = versionIndex;
         }
-        if (recipe1 instanceof SmithingRecipe && recipe2 instanceof SmithingRecipe) {
-            SmithingRecipe smithingRecipe1 = (SmithingRecipe) recipe1;
-            SmithingRecipe smithingRecipe2 = (SmithingRecipe) recipe2;
-            int smithingCompare = smithingRecipe1.getType().compareTo(smithingRecipe2.getType());
-            if (smithingCompare != 0) {
-                return smithingCompare;
-            }
+
+        /**
+         * @return A future that completes once every background index is built, or completes exceptionally
+         * if any of them failed
+         */
+        public CompletableFuture<Void> indexed() {
+            return CompletableFuture.allOf(ingredientIndex, craftTree, craftableIndex);
         }
-        return recipe1.getKey().compareTo(recipe2.getKey());
     }
 
 }
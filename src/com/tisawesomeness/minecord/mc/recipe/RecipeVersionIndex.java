@@ -0,0 +1,109 @@
+package com.tisawesomeness.minecord.mc.recipe;
+
+import com.tisawesomeness.minecord.mc.FeatureFlag;
+import com.tisawesomeness.minecord.mc.Version;
+
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * An index of which recipes are in each version, used to filter recipe searches to a version.
+ * <br>Recipes only change in the versions where a recipe was added or removed, so the index stores one bitset
+ * of recipe ordinals for each span between those versions. Filtering to a version is a binary search for the span,
+ * then a bit test for each recipe.
+ * <br>A recipe is in a version if it was added in or before the version and removed after it.
+ * Recipes behind a feature flag are added in the version the flag was released, and unreleased recipes are in no version.
+ */
+public final class RecipeVersionIndex {
+
+    // Sorted versions where at least one recipe was added or removed
+    private final Version[] boundaries;
+    // spans[i] holds the recipes in versions from boundaries[i - 1] up to but not including boundaries[i]
+    private final BitSet[] spans;
+
+    private RecipeVersionIndex(Version[] boundaries, BitSet[] spans) {
+        this.boundaries = boundaries;
+        this.spans = spans;
+    }
+
+    /**
+     * Builds a new index.
+     * @param recipes All recipes, each with a unique ordinal
+     * @return The index
+     */
+    public static RecipeVersionIndex build(Collection<Recipe> recipes) {
+        SortedSet<Version> boundarySet = new TreeSet<>();
+        for (Recipe recipe : recipes) {
+            Version added = getAddedVersion(recipe);
+            if (added != null) {
+                boundarySet.add(added);
+            }
+            if (recipe.getRemovedVersion() != null) {
+                boundarySet.add(recipe.getRemovedVersion());
+            }
+        }
+        Version[] boundaries = boundarySet.toArray(new Version[0]);
+
+        BitSet[] spans = new BitSet[boundaries.length + 1];
+        for (int i = 0; i < spans.length; i++) {
+            spans[i] = new BitSet();
+        }
+        for (Recipe recipe : recipes) {
+            if (!recipe.isReleased()) {
+                continue;
+            }
+            Version added = getAddedVersion(recipe);
+            Version removed = recipe.getRemovedVersion();
+            int start = added == null ? 0 : spanOf(boundaries, added);
+            int end = removed == null ? spans.length : spanOf(boundaries, removed);
+            for (int i = start; i < end; i++) {
+                spans[i].set(recipe.getOrdinal());
+            }
+        }
+        return new RecipeVersionIndex(boundaries, spans);
+    }
+    private static @Nullable Version getAddedVersion(Recipe recipe) {
+        FeatureFlag flag = recipe.getFeatureFlag();
+        if (flag != null) {
+            return flag.getReleaseVersion().orElse(null);
+        }
+        return recipe.getVersion();
+    }
+    // The index of the span starting at or containing a version
+    private static int spanOf(Version[] boundaries, Version version) {
+        int idx = Arrays.binarySearch(boundaries, version);
+        return idx >= 0 ? idx + 1 : -idx - 1;
+    }
+
+    /**
+     * Checks if a recipe is in a version.
+     * @param recipe The recipe, which must be indexed
+     * @param version The version
+     * @return True if the recipe was added in or before the version and not removed
+     */
+    public boolean contains(Recipe recipe, Version version) {
+        return spans[spanOf(boundaries, version)].get(recipe.getOrdinal());
+    }
+
+    /**
+     * Filters a list of recipes to the ones in a version.
+     * @param recipes The recipes, which must be indexed
+     * @param version The version
+     * @return An unmodifiable list of recipes in the same order, or the same list if every recipe is in the version
+     */
+    public List<Recipe> filter(List<Recipe> recipes, Version version) {
+        BitSet span = spans[spanOf(boundaries, version)];
+        List<Recipe> filtered = null;
+        for (int i = 0; i < recipes.size(); i++) {
+            Recipe recipe = recipes.get(i);
+            boolean included = span.get(recipe.getOrdinal());
+            if (filtered == null && !included) {
+                filtered = new ArrayList<>(recipes.subList(0, i));
+            } else if (filtered != null && included) {
+                filtered.add(recipe);
+            }
+        }
+        return filtered == null ? recipes : Collections.unmodifiableList(filtered);
+    }
+
+}
@@ -1,27 +1,26 @@
 package com.tisawesomeness.minecord.mc.recipe;
 
+import com.tisawesomeness.minecord.mc.FeatureFlag;
+import com.tisawesomeness.minecord.util.DataNode;
 import com.tisawesomeness.minecord.util.Utils;
 import org.apache.commons.collections4.OrderedMap;
 import org.apache.commons.collections4.map.LinkedMap;
-import org.json.JSONArray;
-import org.json.JSONObject;
+import org.apache.commons.collections4.map.UnmodifiableOrderedMap;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class ShapedRecipe extends CraftingRecipe {
 
-    protected ShapedRecipe(String key, JSONObject recipe) {
-        super(key, recipe);
-    }
-
-    @Override
-    public List<Ingredient> getIngredients() {
-        return Utils.flatten(getIngredientKey().values());
-    }
+    private final String[] pattern;
+    private final OrderedMap<Character, List<Ingredient>> ingredientKey;
+    private final List<Ingredient> ingredients;
 
-    public String[] getPattern() {
-        String[] pattern = new String[3];
-        JSONArray givenPattern = recipe.getJSONArray("pattern");
+    protected ShapedRecipe(String key, DataNode recipe, List<FeatureFlag> flags) {
+        super(key, recipe, flags);
+        pattern = new String[3];
+        DataNode givenPattern = recipe.getArray("pattern");
         for (int i = 0; i < 3; i++) {
             StringBuilder row = new StringBuilder(givenPattern.optString(i, "   "));
             while (row.length() < 3) {
@@ -29,14 +28,45 @@ public class ShapedRecipe extends CraftingRecipe {
             }
             pattern[i] = row.toString();
         }
-        return pattern;
+        OrderedMap<Character, List<Ingredient>> map = new LinkedMap<>();
+        for (DataNode ingredient : recipe.getObject("key").members()) {
+            map.put(ingredient.getKey().charAt(0), parseIngredients(ingredient));
+        }
+        ingredientKey = UnmodifiableOrderedMap.unmodifiableOrderedMap(map);
+        ingredients = Collections.unmodifiableList(Utils.flatten(map.values()));
     }
 
+    @Override
+    public List<Ingredient> getIngredients() {
+        return ingredients;
+    }
+
+    @Override
+    public List<List<Ingredient>> getSlots() {
+        List<List<Ingredient>> slots = new ArrayList<>();
+        for (String row : pattern) {
+            for (char c : row.toCharArray()) {
+                List<Ingredient> slot = ingredientKey.get(c);
+                if (slot != null) {
+                    slots.add(slot);
+                }
+            }
+        }
+        return Collections.unmodifiableList(slots);
+    }
+
+    /**
+     * @return the 3x3 pattern, padded with spaces, as a new array
+     */
+    public String[] getPattern() {
+        return pattern.clone();
+    }
+
+    /**
+     * @return an unmodifiable map of pattern characters to ingredients, in the order they were defined
+     */
     public OrderedMap<Character, List<Ingredient>> getIngredientKey() {
-        OrderedMap<Character, List<Ingredient>> map = new LinkedMap<>();
-        JSONObject keyObj = recipe.getJSONObject("key");
-        keyObj.keys().forEachRemaining(k -> map.put(k.charAt(0), parseIngredients(keyObj.get(k))));
-        return map;
+        return ingredientKey;
     }
 
 }
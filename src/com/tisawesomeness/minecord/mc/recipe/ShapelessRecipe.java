@@ -1,29 +1,39 @@
 package com.tisawesomeness.minecord.mc.recipe;
 
+import com.tisawesomeness.minecord.mc.FeatureFlag;
+import com.tisawesomeness.minecord.util.DataNode;
 import com.tisawesomeness.minecord.util.Utils;
-import org.json.JSONArray;
-import org.json.JSONObject;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class ShapelessRecipe extends CraftingRecipe {
 
-    protected ShapelessRecipe(String key, JSONObject recipe) {
-        super(key, recipe);
+    private final List<List<Ingredient>> ingredientsPerSlot;
+    private final List<Ingredient> ingredients;
+
+    protected ShapelessRecipe(String key, DataNode recipe, List<FeatureFlag> flags) {
+        super(key, recipe, flags);
+        DataNode ingredientsArr = recipe.getArray("ingredients");
+        List<List<Ingredient>> slots = new ArrayList<>(ingredientsArr.length());
+        for (DataNode ingredient : ingredientsArr.members()) {
+            slots.add(parseIngredients(ingredient));
+        }
+        ingredientsPerSlot = Collections.unmodifiableList(slots);
+        ingredients = Collections.unmodifiableList(Utils.flatten(slots));
     }
 
     @Override
     public List<Ingredient> getIngredients() {
-        return Utils.flatten(getIngredientsPerSlot());
+        return ingredients;
+    }
+    @Override
+    public List<List<Ingredient>> getSlots() {
+        return ingredientsPerSlot;
     }
     public List<List<Ingredient>> getIngredientsPerSlot() {
-        List<List<Ingredient>> slots = new ArrayList<>();
-        JSONArray ingredients = recipe.getJSONArray("ingredients");
-        for (int i = 0; i < ingredients.length(); i++) {
-            slots.add(parseIngredients(ingredients.get(i)));
-        }
-        return slots;
+        return ingredientsPerSlot;
     }
 
 }
@@ -1,19 +1,25 @@
 package com.tisawesomeness.minecord.mc.recipe;
 
+import com.tisawesomeness.minecord.mc.FeatureFlag;
+import com.tisawesomeness.minecord.util.DataNode;
 import lombok.RequiredArgsConstructor;
-import org.json.JSONObject;
 
 import java.util.List;
 
 public class SmeltingRecipe extends Recipe {
 
-    protected SmeltingRecipe(String key, JSONObject recipe) {
-        super(key, recipe);
+    private final List<Ingredient> ingredients;
+    private final Type type;
+
+    protected SmeltingRecipe(String key, DataNode recipe, List<FeatureFlag> flags) {
+        super(key, recipe, flags);
+        ingredients = parseIngredients(recipe.get("ingredient"));
+        type = Type.of(recipe.getString("type").substring("minecraft:".length()));
     }
 
     @Override
     public List<Ingredient> getIngredients() {
-        return parseIngredients(recipe.get("ingredient"));
+        return ingredients;
     }
 
     @Override
@@ -22,7 +28,7 @@ public class SmeltingRecipe extends Recipe {
     }
 
     public Type getType() {
-        return Type.of(recipe.getString("type").substring("minecraft:".length()));
+        return type;
     }
 
     @RequiredArgsConstructor
@@ -1,29 +1,45 @@
 package com.tisawesomeness.minecord.mc.recipe;
 
+import com.tisawesomeness.minecord.mc.FeatureFlag;
+import com.tisawesomeness.minecord.util.DataNode;
 import lombok.RequiredArgsConstructor;
-import org.apache.commons.collections4.ListUtils;
-import org.json.JSONObject;
 
+import java.util.Arrays;
 import java.util.List;
 
 public class SmithingRecipe extends Recipe {
 
-    protected SmithingRecipe(String key, JSONObject recipe) {
-        super(key, recipe);
+    private final List<Ingredient> template;
+    private final List<Ingredient> base;
+    private final List<Ingredient> addition;
+    private final List<Ingredient> ingredients;
+    private final Type type;
+
+    protected SmithingRecipe(String key, DataNode recipe, List<FeatureFlag> flags) {
+        super(key, recipe, flags);
+        template = parseIngredients(recipe.get("template"));
+        base = parseIngredients(recipe.get("base"));
+        addition = parseIngredients(recipe.get("addition"));
+        ingredients = join(base, template, addition);
+        type = Type.of(recipe.getString("type").substring("minecraft:".length()));
     }
 
     @Override
     public List<Ingredient> getIngredients() {
-        return ListUtils.union(getBase(), ListUtils.union(getTemplate(), getAddition()));
+        return ingredients;
+    }
+    @Override
+    public List<List<Ingredient>> getSlots() {
+        return Arrays.asList(template, base, addition);
     }
     public List<Ingredient> getTemplate() {
-        return parseIngredients(recipe.get("template"));
+        return template;
     }
     public List<Ingredient> getBase() {
-        return parseIngredients(recipe.get("base"));
+        return base;
     }
     public List<Ingredient> getAddition() {
-        return parseIngredients(recipe.get("addition"));
+        return addition;
     }
 
     @Override
@@ -32,7 +48,7 @@ public class SmithingRecipe extends Recipe {
     }
 
     public Type getType() {
-        return Type.of(recipe.getString("type").substring("minecraft:".length()));
+        return type;
     }
 
     @RequiredArgsConstructor
@@ -1,18 +1,22 @@
 package com.tisawesomeness.minecord.mc.recipe;
 
-import org.json.JSONObject;
+import com.tisawesomeness.minecord.mc.FeatureFlag;
+import com.tisawesomeness.minecord.util.DataNode;
 
 import java.util.List;
 
 public class StonecuttingRecipe extends Recipe {
 
-    protected StonecuttingRecipe(String key, JSONObject recipe) {
-        super(key, recipe);
+    private final List<Ingredient> ingredients;
+
+    protected StonecuttingRecipe(String key, DataNode recipe, List<FeatureFlag> flags) {
+        super(key, recipe, flags);
+        ingredients = parseIngredients(recipe.get("ingredient"));
     }
 
     @Override
     public List<Ingredient> getIngredients() {
-        return parseIngredients(recipe.get("ingredient"));
+        return ingredients;
     }
 
     @Override
@@ -0,0 +1,51 @@
+package com.tisawesomeness.minecord.mc.recipe;
+
+import lombok.Value;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * A tag with all nested tags resolved to items.
+ */
+@Value
+public class TagClosure {
+    /**
+     * The tag name, without the namespace
+     */
+    String name;
+    /**
+     * All items in the tag, without duplicates, in the order they first appear
+     */
+    List<String> items;
+    /**
+     * The items each feature flag adds to the tag, keyed by flag ID in release order, with "vanilla" first.
+     * An item reached through a nested tag belongs to the later of the flag that references the nested tag
+     * and the flag that adds it to the nested tag. Each item belongs to only one flag.
+     */
+    Map<String, List<String>> itemsByFlag;
+
+    /**
+     * Finds the items in the tag when only some feature flags are enabled
+     * @param enabledFlagIDs The IDs of the enabled flags, including "vanilla"
+     * @return The items from the enabled flags, in the same order as {@link #getItems()}
+     */
+    public List<String> getItems(Collection<String> enabledFlagIDs) {
+        if (enabledFlagIDs.containsAll(itemsByFlag.keySet())) {
+            return items;
+        }
+        Set<String> enabledItems = new HashSet<>();
+        for (Map.Entry<String, List<String>> entry : itemsByFlag.entrySet()) {
+            if (enabledFlagIDs.contains(entry.getKey())) {
+                enabledItems.addAll(entry.getValue());
+            }
+        }
+        return items.stream()
+                .filter(enabledItems::contains)
+                .collect(Collectors.toList());
+    }
+}
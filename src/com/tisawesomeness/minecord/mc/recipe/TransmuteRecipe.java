@@ -1,26 +1,40 @@
 package com.tisawesomeness.minecord.mc.recipe;
 
-import com.tisawesomeness.minecord.util.Utils;
-import org.apache.commons.collections4.ListUtils;
-import org.json.JSONObject;
+import com.tisawesomeness.minecord.mc.FeatureFlag;
+import com.tisawesomeness.minecord.util.DataNode;
 
+import java.util.Arrays;
 import java.util.List;
 
 public class TransmuteRecipe extends CraftingRecipe {
 
-    protected TransmuteRecipe(String key, JSONObject recipe) {
-        super(key, recipe);
+    private final List<Ingredient> input;
+    private final List<Ingredient> material;
+    private final List<Ingredient> ingredients;
+    private final boolean includeResult;
+
+    protected TransmuteRecipe(String key, DataNode recipe, List<FeatureFlag> flags) {
+        super(key, recipe, flags);
+        input = parseIngredients(recipe.get("input"));
+        material = parseIngredients(recipe.get("material"));
+        ingredients = join(material, input);
+        DataNode prop = recipe.optObject("properties");
+        includeResult = prop != null && prop.optBoolean("include_result", false);
     }
 
     @Override
     public List<Ingredient> getIngredients() {
-        return ListUtils.union(getMaterial(), getInput());
+        return ingredients;
+    }
+    @Override
+    public List<List<Ingredient>> getSlots() {
+        return Arrays.asList(input, material);
     }
     public List<Ingredient> getInput() {
-        return parseIngredients(recipe.get("input"));
+        return input;
     }
     public List<Ingredient> getMaterial() {
-        return parseIngredients(recipe.get("material"));
+        return material;
     }
 
     /**
@@ -30,9 +44,7 @@ public class TransmuteRecipe extends CraftingRecipe {
      * @return true or false
      */
     public boolean shouldIngredientsIncludeResult() {
-        Boolean includeResult = Utils.mapNullable(recipe.optJSONObject("properties"),
-                prop -> prop.optBoolean("include_result", false));
-        return Boolean.TRUE.equals(includeResult);
+        return includeResult;
     }
 
 }
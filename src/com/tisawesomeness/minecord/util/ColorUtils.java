@@ -18,7 +18,8 @@ public class ColorUtils {
             .roundingMode(RoundingMode.HALF_UP)
             .build();
 
-    private static JSONObject colors;
+    // Replaced all at once on reload
+    private static volatile JSONObject colors;
 
     private static final List<Color> mcColors = Arrays.asList(
             new Color(0, 0, 0),
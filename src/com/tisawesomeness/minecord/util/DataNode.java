@@ -0,0 +1,306 @@
+package com.tisawesomeness.minecord.util;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import javax.annotation.Nullable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static com.tisawesomeness.minecord.util.DataSnapshot.*;
+
+/**
+ * A JSON value read straight from the records of a {@link DataSnapshot}, without building a JSON tree.
+ * <br>Nodes are small views created as they are accessed. Accessors follow org.json:
+ * {@code get} methods throw a {@link JSONException} if the value is missing or has the wrong type,
+ * and {@code opt} methods return a default instead.
+ * Object members are in the same order org.json iterates them.
+ */
+public final class DataNode {
+
+    private static final DataNode EMPTY_OBJECT = DataSnapshot.fromJSON(new JSONObject());
+
+    private final DataSnapshot.Table table;
+    private final int record;
+
+    DataNode(DataSnapshot.Table table, int record) {
+        this.table = table;
+        this.record = record;
+    }
+
+    /**
+     * @return An object with no members
+     */
+    public static DataNode emptyObject() {
+        return EMPTY_OBJECT;
+    }
+
+    /**
+     * @return The key of this value in the object containing it, or null if it is not in an object
+     */
+    public @Nullable String getKey() {
+        int key = table.key(record);
+        return key < 0 ? null : table.strings[key];
+    }
+
+    public boolean isObject() {
+        return table.type(record) == OBJECT;
+    }
+    public boolean isArray() {
+        return table.type(record) == ARRAY;
+    }
+    public boolean isString() {
+        return table.type(record) == STRING;
+    }
+
+    /**
+     * @return The number of members of an object or elements of an array, or 0 for any other value
+     */
+    public int length() {
+        return isObject() || isArray() ? table.value(record) : 0;
+    }
+
+    /**
+     * Iterates over the members of an object in order, each with its key, or the elements of an array.
+     * @return The members or elements, or nothing for any other value
+     */
+    public Iterable<DataNode> members() {
+        int end = isObject() || isArray() ? table.next(record) : record + 1;
+        return () -> new Iterator<DataNode>() {
+            private int child = record + 1;
+            @Override
+            public boolean hasNext() {
+                return child < end;
+            }
+            @Override
+            public DataNode next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                DataNode node = new DataNode(table, child);
+                child = table.next(child);
+                return node;
+            }
+        };
+    }
+
+    /**
+     * @param key The key
+     * @return Whether this is an object with a member with the key
+     */
+    public boolean has(String key) {
+        return find(key) >= 0;
+    }
+    /**
+     * @param key The key
+     * @return The member of this object with the key, or null if missing
+     */
+    public @Nullable DataNode opt(String key) {
+        int child = find(key);
+        return child < 0 ? null : new DataNode(table, child);
+    }
+    /**
+     * @param key The key
+     * @return The member of this object with the key
+     * @throws JSONException if the member is missing
+     */
+    public DataNode get(String key) {
+        DataNode node = opt(key);
+        if (node == null) {
+            throw new JSONException("JSONObject[" + JSONObject.quote(key) + "] not found.");
+        }
+        return node;
+    }
+    // Finds the record of a member, or -1 if missing
+    private int find(String key) {
+        if (!isObject()) {
+            return -1;
+        }
+        int end = table.next(record);
+        for (int child = record + 1; child < end; child = table.next(child)) {
+            int childKey = table.key(child);
+            if (table.strings[childKey].equals(key)) {
+                return child;
+            }
+        }
+        return -1;
+    }
+    /**
+     * @param index The index
+     * @return The element of this array at the index, or null if out of bounds
+     */
+    public @Nullable DataNode opt(int index) {
+        if (!isArray() || index < 0 || index >= length()) {
+            return null;
+        }
+        int child = record + 1;
+        for (int i = 0; i < index; i++) {
+            child = table.next(child);
+        }
+        return new DataNode(table, child);
+    }
+    /**
+     * @param index The index
+     * @return The element of this array at the index
+     * @throws JSONException if the index is out of bounds
+     */
+    public DataNode get(int index) {
+        DataNode node = opt(index);
+        if (node == null) {
+            throw new JSONException("JSONArray[" + index + "] not found.");
+        }
+        return node;
+    }
+
+    public DataNode getObject(String key) {
+        return get(key).expect(OBJECT, "JSONObject");
+    }
+    public @Nullable DataNode optObject(String key) {
+        DataNode node = opt(key);
+        return node != null && node.isObject() ? node : null;
+    }
+    public DataNode getArray(String key) {
+        return get(key).expect(ARRAY, "JSONArray");
+    }
+    public @Nullable DataNode optArray(String key) {
+        DataNode node = opt(key);
+        return node != null && node.isArray() ? node : null;
+    }
+    public String getString(String key) {
+        return get(key).asString();
+    }
+    public String getString(int index) {
+        return get(index).asString();
+    }
+    /**
+     * @param key The key
+     * @param defaultValue The value to return if the member is missing or null
+     * @return The member as text, or the default
+     */
+    public @Nullable String optString(String key, @Nullable String defaultValue) {
+        return textOrDefault(opt(key), defaultValue);
+    }
+    /**
+     * @param index The index
+     * @param defaultValue The value to return if the element is out of bounds or null
+     * @return The element as text, or the default
+     */
+    public @Nullable String optString(int index, @Nullable String defaultValue) {
+        return textOrDefault(opt(index), defaultValue);
+    }
+    private static @Nullable String textOrDefault(@Nullable DataNode node, @Nullable String defaultValue) {
+        return node == null || node.table.type(node.record) == NULL ? defaultValue : node.toString(false);
+    }
+    /**
+     * @param key The key
+     * @param defaultValue The value to return if the member is missing or not a number
+     * @return The member as an int, or the default
+     */
+    public int optInt(String key, int defaultValue) {
+        DataNode node = opt(key);
+        if (node != null && node.table.type(node.record) == INT) {
+            return node.table.value(node.record);
+        }
+        double value = optDouble(key, Double.NaN);
+        return Double.isNaN(value) ? defaultValue : (int) value;
+    }
+    /**
+     * @param key The key
+     * @param defaultValue The value to return if the member is missing or not a number
+     * @return The member as a double, or the default
+     */
+    public double optDouble(String key, double defaultValue) {
+        DataNode node = opt(key);
+        if (node == null) {
+            return defaultValue;
+        }
+        switch (node.table.type(node.record)) {
+            case INT:
+                return node.table.value(node.record);
+            case NUMBER:
+            case STRING:
+                try {
+                    return Double.parseDouble(node.table.strings[node.table.value(node.record)]);
+                } catch (NumberFormatException ex) {
+                    return defaultValue;
+                }
+            default:
+                return defaultValue;
+        }
+    }
+    /**
+     * @param key The key
+     * @param defaultValue The value to return if the member is missing or not a boolean
+     * @return The member as a boolean, or the default
+     */
+    public boolean optBoolean(String key, boolean defaultValue) {
+        DataNode node = opt(key);
+        if (node == null) {
+            return defaultValue;
+        }
+        int type = node.table.type(node.record);
+        if (type == TRUE || type == FALSE) {
+            return type == TRUE;
+        }
+        String str = node.isString() ? node.asString() : null;
+        if ("true".equalsIgnoreCase(str)) {
+            return true;
+        } else if ("false".equalsIgnoreCase(str)) {
+            return false;
+        }
+        return defaultValue;
+    }
+
+    /**
+     * @return This value as a string
+     * @throws JSONException if this is not a string
+     */
+    public String asString() {
+        return expect(STRING, "String").table.strings[table.value(record)];
+    }
+    private DataNode expect(int type, String typeName) {
+        if (table.type(record) != type) {
+            throw new JSONException("Expected a " + typeName + " but was " + this);
+        }
+        return this;
+    }
+
+    /**
+     * @return This value as JSON, or the text of a string
+     */
+    @Override
+    public String toString() {
+        return toString(false);
+    }
+    private String toString(boolean quote) {
+        switch (table.type(record)) {
+            case OBJECT:
+            case ARRAY:
+                StringBuilder sb = new StringBuilder(isObject() ? "{" : "[");
+                for (DataNode child : members()) {
+                    if (sb.length() > 1) {
+                        sb.append(',');
+                    }
+                    if (isObject()) {
+                        sb.append(JSONObject.quote(child.getKey())).append(':');
+                    }
+                    sb.append(child.toString(true));
+                }
+                return sb.append(isObject() ? '}' : ']').toString();
+            case STRING:
+                String str = table.strings[table.value(record)];
+                return quote ? JSONObject.quote(str) : str;
+            case INT:
+                return String.valueOf(table.value(record));
+            case NUMBER:
+                return table.strings[table.value(record)];
+            case TRUE:
+                return "true";
+            case FALSE:
+                return "false";
+            default:
+                return "null";
+        }
+    }
+
+}
@@ -0,0 +1,293 @@
+package com.tisawesomeness.minecord.util;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Loads JSON data files through binary snapshots compiled by the build, which are read without tokenizing any JSON.
+ * <br>A snapshot starts with a header holding the SHA-256 hash of the JSON file it was compiled from,
+ * followed by a table of every distinct string and a list of fixed-width records for each value in pre-order.
+ * Snapshots are stored on the classpath under {@code /snapshots}, and the records are read in place as {@link DataNode}s.
+ * <br>If the snapshot is missing, corrupt, or was compiled from a different JSON file, the JSON is parsed instead.
+ * The data directory is only ever read.
+ */
+public final class DataSnapshot {
+
+    public static final String EXTENSION = ".snapshot";
+    /**
+     * The data files the build compiles snapshots of
+     */
+    public static final List<String> FILES = Collections.unmodifiableList(Arrays.asList(
+            "items.json", "recipes.json", "tags.json", "flags.json"));
+
+    private static final String RESOURCE_DIR = "/snapshots/";
+    private static final int MAGIC = 0x4D434453; // MCDS
+    private static final int FORMAT_VERSION = 2;
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final int HASH_SIZE = 32;
+
+    // Each record is 3 ints: the type in the top byte and the key string index + 1 in the rest (0 for array elements
+    // and the root), the value (the member or element count, a string index, or an int),
+    // and the index of the record after this value and everything nested in it
+    static final int RECORD_INTS = 3;
+    static final int OBJECT = 0;
+    static final int ARRAY = 1;
+    static final int STRING = 2;
+    static final int INT = 3;
+    static final int NUMBER = 4; // Any other number, stored as a string
+    static final int TRUE = 5;
+    static final int FALSE = 6;
+    static final int NULL = 7;
+
+    private DataSnapshot() {}
+
+    /**
+     * Compiles the snapshots of the data files in a directory. Run by the build.
+     * @param args The data directory, then the output directory
+     * @throws IOException if a file could not be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: DataSnapshot <data directory> <output directory>");
+        }
+        Path outputDir = Files.createDirectories(Paths.get(args[1]));
+        for (String file : FILES) {
+            byte[] json = Files.readAllBytes(Paths.get(args[0], file));
+            Table table = compile(json);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(outputDir.resolve(file + EXTENSION))))) {
+                write(out, hash(json), table);
+            }
+            System.out.println("Compiled " + file + EXTENSION);
+        }
+    }
+
+    /**
+     * Loads the root value of a data file, using its snapshot if it was compiled from the same file.
+     * @param path The path to the JSON file
+     * @return The root value
+     * @throws IOException if the JSON file could not be read
+     * @throws org.json.JSONException if the snapshot could not be used and the JSON file is invalid
+     */
+    public static DataNode load(String path) throws IOException {
+        Path source = Paths.get(path);
+        String resource = RESOURCE_DIR + source.getFileName() + EXTENSION;
+        try (InputStream is = DataSnapshot.class.getResourceAsStream(resource)) {
+            if (is != null) {
+                Table table = read(is, hash(source));
+                if (table != null) {
+                    return table.root();
+                }
+                System.err.println("Snapshot of " + source.getFileName() + " is out of date, parsing JSON");
+            } else {
+                System.err.println("Snapshot of " + source.getFileName() + " is missing, parsing JSON");
+            }
+        } catch (IOException | RuntimeException ex) {
+            System.err.println("Could not read snapshot of " + source.getFileName() + ", parsing JSON: " + ex);
+        }
+        return compile(Files.readAllBytes(source)).root();
+    }
+
+    private static byte[] hash(Path source) throws IOException {
+        MessageDigest digest = newDigest();
+        // Hashed in chunks so the file is never held in memory all at once
+        ByteBuffer buf = ByteBuffer.allocate(64 * 1024);
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            while (channel.read(buf) >= 0) {
+                buf.flip();
+                digest.update(buf);
+                buf.clear();
+            }
+        }
+        return digest.digest();
+    }
+    private static byte[] hash(byte[] json) {
+        return newDigest().digest(json);
+    }
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new AssertionError("Every JVM supports " + HASH_ALGORITHM, ex);
+        }
+    }
+
+    /**
+     * Reads a snapshot.
+     * @return The records, or null if the snapshot was compiled from a different file
+     */
+    private static Table read(InputStream is, byte[] expectedHash) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(is));
+        if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+            return null;
+        }
+        byte[] hash = new byte[HASH_SIZE];
+        in.readFully(hash);
+        if (!MessageDigest.isEqual(hash, expectedHash)) {
+            return null;
+        }
+
+        String[] strings = new String[in.readInt()];
+        byte[] bytes = new byte[64];
+        for (int i = 0; i < strings.length; i++) {
+            int size = in.readInt();
+            if (size > bytes.length) {
+                bytes = new byte[Math.max(size, bytes.length * 2)];
+            }
+            in.readFully(bytes, 0, size);
+            strings[i] = new String(bytes, 0, size, StandardCharsets.UTF_8);
+        }
+
+        int[] records = new int[in.readInt() * RECORD_INTS];
+        byte[] block = new byte[records.length * 4];
+        in.readFully(block);
+        ByteBuffer.wrap(block).asIntBuffer().get(records);
+        if (in.read() != -1) {
+            throw new IOException("Snapshot has data after the last record");
+        }
+        return new Table(strings, records);
+    }
+
+    private static void write(DataOutputStream out, byte[] hash, Table table) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.write(hash);
+        out.writeInt(table.strings.length);
+        for (String str : table.strings) {
+            byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+        out.writeInt(table.records.length / RECORD_INTS);
+        for (int record : table.records) {
+            out.writeInt(record);
+        }
+    }
+
+    // Parses with org.json so members are in the same order as when the JSON is parsed directly
+    private static Table compile(byte[] json) {
+        return encode(new JSONTokener(new String(json, StandardCharsets.UTF_8)).nextValue());
+    }
+    /**
+     * Converts a parsed JSON value to records.
+     * @param root A JSONObject, JSONArray, or JSON scalar
+     * @return The root value
+     */
+    static DataNode fromJSON(Object root) {
+        return encode(root).root();
+    }
+    private static Table encode(Object root) {
+        Encoder encoder = new Encoder();
+        encoder.encode(root, -1);
+        return new Table(encoder.strings.toArray(new String[0]), Arrays.copyOf(encoder.records, encoder.size));
+    }
+
+    /**
+     * The string table and records of a snapshot, never modified after it is read.
+     */
+    static final class Table {
+        final String[] strings;
+        final int[] records;
+
+        private Table(String[] strings, int[] records) {
+            this.strings = strings;
+            this.records = records;
+        }
+
+        private DataNode root() {
+            return new DataNode(this, 0);
+        }
+
+        int type(int record) {
+            return records[record * RECORD_INTS] >>> 24;
+        }
+        // -1 if the record has no key
+        int key(int record) {
+            return (records[record * RECORD_INTS] & 0xFFFFFF) - 1;
+        }
+        int value(int record) {
+            return records[record * RECORD_INTS + 1];
+        }
+        int next(int record) {
+            return records[record * RECORD_INTS + 2];
+        }
+    }
+
+    private static final class Encoder {
+        private final List<String> strings = new ArrayList<>();
+        private final Map<String, Integer> stringIndexes = new HashMap<>();
+        private int[] records = new int[RECORD_INTS * 1024];
+        private int size;
+
+        private void encode(Object value, int key) {
+            if (value instanceof JSONObject) {
+                JSONObject obj = (JSONObject) value;
+                int record = record(OBJECT, key, obj.length());
+                Iterable<String> keys = obj::keys;
+                for (String childKey : keys) {
+                    encode(obj.get(childKey), stringIndex(childKey));
+                }
+                end(record);
+            } else if (value instanceof JSONArray) {
+                JSONArray arr = (JSONArray) value;
+                int record = record(ARRAY, key, arr.length());
+                for (int i = 0; i < arr.length(); i++) {
+                    encode(arr.get(i), -1);
+                }
+                end(record);
+            } else if (value instanceof String) {
+                end(record(STRING, key, stringIndex((String) value)));
+            } else if (value instanceof Integer) {
+                end(record(INT, key, (Integer) value));
+            } else if (value instanceof Number) {
+                end(record(NUMBER, key, stringIndex(value.toString())));
+            } else if (value instanceof Boolean) {
+                end(record((Boolean) value ? TRUE : FALSE, key, 0));
+            } else if (value == JSONObject.NULL) {
+                end(record(NULL, key, 0));
+            } else {
+                throw new IllegalArgumentException("Cannot encode " + value.getClass());
+            }
+        }
+        private int record(int type, int key, int value) {
+            if (size + RECORD_INTS > records.length) {
+                records = Arrays.copyOf(records, records.length * 2);
+            }
+            int record = size / RECORD_INTS;
+            records[size++] = type << 24 | (key + 1);
+            records[size++] = value;
+            records[size++] = -1;
+            return record;
+        }
+        // Called once everything nested in a record is encoded
+        private void end(int record) {
+            records[record * RECORD_INTS + 2] = size / RECORD_INTS;
+        }
+        private int stringIndex(String str) {
+            Integer index = stringIndexes.get(str);
+            if (index == null) {
+                index = strings.size();
+                if (index >= 0xFFFFFF) {
+                    throw new IllegalArgumentException("Too many distinct strings");
+                }
+                strings.add(str);
+                stringIndexes.put(str, index);
+            }
+            return index;
+        }
+    }
+
+}
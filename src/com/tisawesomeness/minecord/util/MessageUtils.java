@@ -11,7 +11,6 @@ import net.dv8tion.jda.api.entities.SelfUser;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 
 import java.awt.*;
-import java.util.regex.Pattern;
 
 public class MessageUtils {
 
@@ -52,14 +51,26 @@ public class MessageUtils {
         return eb.setFooter(announcement, Bot.ownerAvatarUrl);
     }
 
+    /**
+     * Checks if a message could be a command, meaning it starts with the prefix or a mention of the bot.
+     * <br>This runs on every message the bot can see, so it only compares characters and does not allocate.
+     * @param content The raw content of the message
+     * @param prefix The prefix for the channel the message was sent in
+     * @param selfId The id of the bot user
+     * @return Whether the message starts with the prefix or a mention
+     */
+    public static boolean isCommandCandidate(String content, String prefix, long selfId) {
+        return content.regionMatches(0, prefix, 0, prefix.length()) || mentionLength(content, selfId) > 0;
+    }
+
     /**
      * Gets the command-useful content of a message, keeping the name and arguments and purging the prefix and mention.
      */
     public static String[] getContent(Message m, String prefix, SelfUser su) {
         String content = m.getContentRaw();
-        if (m.getContentRaw().startsWith(prefix)) {
-            return content.replaceFirst(Pattern.quote(prefix), "").split(" ");
-        } else if (content.replace("@!", "@").startsWith(su.getAsMention())) {
+        if (content.regionMatches(0, prefix, 0, prefix.length())) {
+            return content.substring(prefix.length()).split(" ");
+        } else if (mentionLength(content, su.getIdLong()) > 0) {
             String[] args = content.split(" ");
             return ArrayUtils.remove(args, 0);
         } else {
@@ -67,6 +78,38 @@ public class MessageUtils {
         }
     }
 
+    /**
+     * Finds the length of a {@code <@id>} or {@code <@!id>} mention of a user at the start of a string.
+     * @param content The string
+     * @param id The id of the user
+     * @return The length of the mention, or 0 if the string does not start with one
+     */
+    private static int mentionLength(String content, long id) {
+        if (!content.regionMatches(0, "<@", 0, 2)) {
+            return 0;
+        }
+        int i = 2;
+        if (i < content.length() && content.charAt(i) == '!') {
+            i++;
+        }
+        // Digits are compared from the right so the id does not need to be turned into a string
+        int start = i;
+        while (i < content.length() && content.charAt(i) >= '0' && content.charAt(i) <= '9') {
+            i++;
+        }
+        if (i == start || i >= content.length() || content.charAt(i) != '>') {
+            return 0;
+        }
+        long left = id;
+        for (int j = i - 1; j >= start; j--) {
+            if (left == 0 || content.charAt(j) - '0' != left % 10) {
+                return 0;
+            }
+            left /= 10;
+        }
+        return left == 0 ? i + 1 : 0;
+    }
+
     /**
      * Gets the prefix the bot should use in a text or private channel
      * @param e The event corresponding to a command
@@ -0,0 +1,156 @@
+package com.tisawesomeness.minecord.util.type;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A thread-safe hash map from primitive longs to non-null values, using open addressing with linear probing.
+ * <br>Lookups do not lock, box the key, or allocate, so the map suits values that are read far more than written.
+ * Writes lock the map, and store immutable values so readers never see a value change under them.
+ * <br>Removed entries leave a marker behind so lookups can probe past them,
+ * and markers are dropped when the table is rebuilt.
+ * @param <V> The type of values
+ */
+public final class ConcurrentLongObjectMap<V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.5f;
+    private static final Object REMOVED = new Object();
+
+    // Replaced all at once when rebuilt
+    private volatile Table table;
+    // Guarded by this
+    private int size;
+    private int used;
+
+    /**
+     * Creates a new, empty map.
+     */
+    public ConcurrentLongObjectMap() {
+        table = new Table(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Gets the value associated with a key.
+     * @param key The key
+     * @return The value, or null if the key is not present
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable V get(long key) {
+        Table t = table;
+        Object value;
+        for (int i = mix(key) & t.mask; (value = t.values.get(i)) != null; i = (i + 1) & t.mask) {
+            // The key is written before the value, so a visible value means the key is visible too
+            if (t.keys[i] == key) {
+                return value == REMOVED ? null : (V) value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Associates a value with a key, replacing any existing value.
+     * @param key The key
+     * @param value The non-null value
+     * @return The previous value, or null if the key was not present
+     */
+    public synchronized @Nullable V put(long key, V value) {
+        if (value == null) {
+            throw new NullPointerException("value cannot be null");
+        }
+        Table t = table;
+        int i = mix(key) & t.mask;
+        Object old;
+        for (; (old = t.values.get(i)) != null; i = (i + 1) & t.mask) {
+            if (t.keys[i] == key) {
+                t.values.set(i, value);
+                if (old == REMOVED) {
+                    size++;
+                    return null;
+                }
+                return cast(old);
+            }
+        }
+        t.keys[i] = key;
+        t.values.set(i, value);
+        size++;
+        used++;
+        if (used > t.capacity() * LOAD_FACTOR) {
+            rebuild();
+        }
+        return null;
+    }
+
+    /**
+     * Removes the value associated with a key.
+     * @param key The key
+     * @return The removed value, or null if the key was not present
+     */
+    public synchronized @Nullable V remove(long key) {
+        Table t = table;
+        Object old;
+        for (int i = mix(key) & t.mask; (old = t.values.get(i)) != null; i = (i + 1) & t.mask) {
+            if (t.keys[i] == key) {
+                if (old == REMOVED) {
+                    return null;
+                }
+                t.values.set(i, REMOVED);
+                size--;
+                return cast(old);
+            }
+        }
+        return null;
+    }
+
+    // Copies live entries into a new table sized for the current size, then publishes it
+    private void rebuild() {
+        Table old = table;
+        Table t = new Table(Math.max(DEFAULT_CAPACITY, tableSizeFor((int) Math.ceil(2 * size / LOAD_FACTOR))));
+        for (int i = 0; i < old.capacity(); i++) {
+            Object value = old.values.get(i);
+            if (value != null && value != REMOVED) {
+                int j = mix(old.keys[i]) & t.mask;
+                while (t.values.get(j) != null) {
+                    j = (j + 1) & t.mask;
+                }
+                t.keys[j] = old.keys[i];
+                t.values.set(j, value);
+            }
+        }
+        used = size;
+        table = t;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> V cast(Object value) {
+        return (V) value;
+    }
+
+    private static int tableSizeFor(int n) {
+        int capacity = Integer.highestOneBit(Math.max(n, 2) - 1) << 1;
+        return capacity < 0 ? 1 << 30 : capacity;
+    }
+    // Spreads sequential keys across the table
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static final class Table {
+        private final long[] keys;
+        // Null slots are empty and end a probe
+        private final AtomicReferenceArray<Object> values;
+        private final int mask;
+
+        private Table(int capacity) {
+            keys = new long[capacity];
+            values = new AtomicReferenceArray<>(capacity);
+            mask = capacity - 1;
+        }
+
+        private int capacity() {
+            return keys.length;
+        }
+    }
+
+}
@@ -0,0 +1,95 @@
+package com.tisawesomeness.minecord.util.type;
+
+import javax.annotation.Nullable;
+
+/**
+ * A hash map from primitive ints to non-null values, using open addressing with linear probing.
+ * Lookups do not box the key or allocate. Not thread-safe; build the map first, then publish it.
+ * @param <V> The type of values
+ */
+public final class IntObjectMap<V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private int[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+
+    /**
+     * Creates a new, empty map.
+     */
+    public IntObjectMap() {
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Gets the value associated with a key.
+     * @param key The key
+     * @return The value, or null if the key is not present
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable V get(int key) {
+        for (int i = mix(key) & mask; values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return (V) values[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Associates a value with a key only if the key is not already present.
+     * @param key The key
+     * @param value The non-null value
+     * @return The existing value, or null if the value was added
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable V putIfAbsent(int key, V value) {
+        if (value == null) {
+            throw new NullPointerException("value cannot be null");
+        }
+        int i = mix(key) & mask;
+        for (; values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return (V) values[i];
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+        if (size > values.length * LOAD_FACTOR) {
+            rehash(values.length * 2);
+        }
+        return null;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int j = mix(oldKeys[i]) & mask;
+                while (values[j] != null) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    // Spreads sequential keys across the table
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+}
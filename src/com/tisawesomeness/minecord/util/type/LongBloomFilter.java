@@ -0,0 +1,73 @@
+package com.tisawesomeness.minecord.util.type;
+
+/**
+ * A Bloom filter of primitive longs, which can say a key was definitely not added using a few bit probes.
+ * <br>Keys that were added are always found, and about 1% of keys that were not added are found anyway.
+ * Lookups do not box the key or allocate. Not thread-safe; build the filter first, then publish it.
+ */
+public final class LongBloomFilter {
+
+    private static final int BITS_PER_KEY = 10;
+    private static final int PROBES = 7;
+    private static final int MIN_BITS = 64;
+
+    private final long[] words;
+    private final int mask;
+
+    /**
+     * Creates a new, empty filter sized for the expected number of keys.
+     * Adding more keys than expected increases the false positive rate.
+     * @param expectedSize The number of keys expected to be added
+     * @throws IllegalArgumentException if the expected size is negative
+     */
+    public LongBloomFilter(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize cannot be negative but was " + expectedSize);
+        }
+        int bits = bitsFor((long) expectedSize * BITS_PER_KEY);
+        words = new long[bits / 64];
+        mask = bits - 1;
+    }
+
+    /**
+     * Adds a key to the filter.
+     * @param key The key
+     */
+    public void add(long key) {
+        long h1 = mix(key);
+        long h2 = mix(h1) | 1;
+        for (int i = 0; i < PROBES; i++) {
+            int bit = (int) (h1 + i * h2) & mask;
+            words[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Checks if a key might have been added.
+     * @param key The key
+     * @return False if the key was definitely not added, true if it probably was
+     */
+    public boolean mightContain(long key) {
+        long h1 = mix(key);
+        long h2 = mix(h1) | 1;
+        for (int i = 0; i < PROBES; i++) {
+            int bit = (int) (h1 + i * h2) & mask;
+            if ((words[bit >>> 6] & 1L << bit) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int bitsFor(long n) {
+        long bits = Long.highestOneBit(Math.max(n, MIN_BITS) - 1) << 1;
+        return (int) Math.min(bits, 1 << 30);
+    }
+    // Stafford's variant 13 of the MurmurHash3 finalizer
+    private static long mix(long key) {
+        long h = (key ^ (key >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.tisawesomeness.minecord.util.type;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs named tasks on an executor, starting each task as soon as every task it depends on has finished.
+ * <br>Tasks must be added after their dependencies, so the graph can never have a cycle.
+ * If a task fails, every task that depends on it fails with the same exception without running.
+ * <br>The time each task took is printed when it finishes.
+ */
+public final class TaskGraph {
+
+    private final Executor executor;
+    private final Map<String, CompletableFuture<Void>> tasks = new LinkedHashMap<>();
+
+    /**
+     * Creates an empty graph.
+     * @param executor The executor to run tasks on
+     */
+    public TaskGraph(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Adds a task to the graph, which starts running once its dependencies finish.
+     * @param name The name of the task, used in the log and by dependent tasks
+     * @param task The task to run
+     * @param dependencies The names of the tasks that must finish first
+     * @return A future that completes when the task finishes
+     * @throws IllegalArgumentException If the name is already used or a dependency has not been added
+     */
+    public CompletableFuture<Void> add(String name, Task task, String... dependencies) {
+        if (tasks.containsKey(name)) {
+            throw new IllegalArgumentException("Task " + name + " was already added");
+        }
+        CompletableFuture<?>[] dependencyFutures = new CompletableFuture<?>[dependencies.length];
+        for (int i = 0; i < dependencies.length; i++) {
+            CompletableFuture<Void> dependency = tasks.get(dependencies[i]);
+            if (dependency == null) {
+                throw new IllegalArgumentException("Task " + name + " depends on missing task " + dependencies[i]);
+            }
+            dependencyFutures[i] = dependency;
+        }
+        CompletableFuture<Void> future = CompletableFuture.allOf(dependencyFutures).thenRunAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                task.run();
+            } catch (Exception ex) {
+                throw new CompletionException(ex);
+            }
+            System.out.printf("%s done in %d ms%n", name, (System.nanoTime() - start) / 1_000_000);
+        }, executor);
+        tasks.put(name, future);
+        return future;
+    }
+
+    /**
+     * Waits for every task in the graph to finish.
+     * @throws ExecutionException If any task failed, with one of the failures as the cause
+     * @throws InterruptedException If the thread was interrupted while waiting
+     */
+    public void await() throws ExecutionException, InterruptedException {
+        CompletableFuture.allOf(tasks.values().toArray(new CompletableFuture<?>[0])).get();
+    }
+
+    /**
+     * A task that may throw a checked exception.
+     */
+    @FunctionalInterface
+    public interface Task {
+        void run() throws Exception;
+    }
+
+}